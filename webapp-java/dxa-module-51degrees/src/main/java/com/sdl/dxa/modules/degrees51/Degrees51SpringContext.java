@@ -3,6 +3,7 @@ package com.sdl.dxa.modules.degrees51;
 import com.sdl.dxa.modules.degrees51.api.mapping.Degrees51Mapping;
 import com.sdl.dxa.modules.degrees51.api.mapping.Degrees51Processor;
 import com.sdl.dxa.modules.degrees51.api.mapping.Extractor;
+import com.sdl.dxa.modules.degrees51.api.mapping.RequestExtractor;
 import com.sdl.webapp.common.util.InitializationUtils;
 import fiftyone.mobile.detection.Match;
 import org.springframework.beans.BeansException;
@@ -15,6 +16,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.Set;
+import java.util.function.Function;
 
 import static com.google.common.collect.Sets.newHashSet;
 import static com.sdl.dxa.modules.degrees51.api.mapping.Converters.TO_BOOLEAN;
@@ -42,6 +44,22 @@ public class Degrees51SpringContext {
         InitializationUtils.traceBeanInitialization(mapping);
     }
 
+    /**
+     * Compiles all registered mappings once, so evaluating them per request needs no parsing or bean lookups.
+     */
+    private static void compileMappings(final ConfigurableListableBeanFactory beanFactory) {
+        Function<String, Degrees51Mapping> resolver = dxaKey -> {
+            Object mapping = beanFactory.containsSingleton(dxaKey) ? beanFactory.getSingleton(dxaKey) : null;
+            return mapping instanceof Degrees51Mapping ? (Degrees51Mapping) mapping : null;
+        };
+        for (String name : beanFactory.getBeanNamesForType(Degrees51Mapping.class, false, false)) {
+            Degrees51Mapping mapping = resolver.apply(name);
+            if (mapping != null) {
+                mapping.compile(resolver);
+            }
+        }
+    }
+
     @Bean
     public BeanFactoryPostProcessor beanFactoryPostProcessor() {
 
@@ -56,9 +74,11 @@ public class Degrees51SpringContext {
 
                 doMapping("ui.android", "PlatformVendor", isStringEqualTo("android"), beanFactory);
                 doMapping("ui.largeBrowser", "DeviceType", new Extractor<Boolean>() {
+                    private final Extractor<Boolean> isSmallScreen = isStringEqualTo("SmallScreen");
+
                     @Override
                     protected Boolean extract(Match match, Degrees51Mapping mapping) {
-                        return !isStringEqualTo("SmallScreen").process(match, mapping);
+                        return !isSmallScreen.process(match, mapping);
                     }
                 }, beanFactory);
 
@@ -98,17 +118,27 @@ public class Degrees51SpringContext {
                 doMapping("device.displayWidth", "dw", FROM_CONTEXT_COOKIE_INTEGER, beanFactory);
                 doMapping("device.displayHeight", "dh", FROM_CONTEXT_COOKIE_INTEGER, beanFactory);
                 doMapping("device.pixelRatio", "dpr", FROM_CONTEXT_COOKIE_DOUBLE, beanFactory);
-                doMapping("device.pixelDensity", "sqrt(dh^2 + dw^2) / ScreenInchesDiagonal", new Extractor<Integer>() {
+                doMapping("device.pixelDensity", "sqrt(dh^2 + dw^2) / ScreenInchesDiagonal", new RequestExtractor<Integer>() {
+                    private final Degrees51Mapping<Double> diagonal = dummyMapping("ScreenInchesDiagonal", TO_DOUBLE);
+
                     @Override
-                    protected Integer extract(Match match, Degrees51Mapping mapping) {
-                        Degrees51Mapping<Double> dm = dummyMapping("ScreenInchesDiagonal", TO_DOUBLE);
-                        Double d = dm.process(match);
+                    protected Object compile(Degrees51Mapping mapping, Function<String, Degrees51Mapping> resolver) {
+                        return new Degrees51Mapping[]{resolver.apply("device.displayHeight"), resolver.apply("device.displayWidth")};
+                    }
+
+                    @Override
+                    public Object prepare(Match match, Degrees51Mapping mapping) {
+                        return diagonal.process(match);
+                    }
+
+                    @Override
+                    protected Integer extractFromRequest(Object prepared, Degrees51Mapping mapping) {
+                        Double d = (Double) prepared;
                         if (d != null) {
-                            Degrees51Mapping<Integer> hm = Degrees51Mapping.retrieveMappingByDxaKey("device.displayHeight");
-                            Degrees51Mapping<Integer> wm = Degrees51Mapping.retrieveMappingByDxaKey("device.displayWidth");
-                            if (hm != null && wm != null) {
-                                Integer h = hm.process(match);
-                                Integer w = wm.process(match);
+                            Degrees51Mapping[] dimensions = (Degrees51Mapping[]) mapping.getCompiled();
+                            if (dimensions[0] != null && dimensions[1] != null) {
+                                Integer h = (Integer) dimensions[0].complete(null);
+                                Integer w = (Integer) dimensions[1].complete(null);
                                 return h != null && w != null ?
                                         Double.valueOf(Math.round(Math.sqrt(h * h + w * w) / d)).intValue() : null;
                             }
@@ -139,6 +169,8 @@ public class Degrees51SpringContext {
 //                doMapping("browser.imageFormatSupport", null, justReturn(null), beanFactory); // todo
 //                doMapping("browser.cssVersion", "HtmlVersion", justReturn(null), beanFactory); // todo
 //                doMapping("browser.preferredHtmlContentType", null, justReturn(null), beanFactory); // todo
+
+                compileMappings(beanFactory);
             }
         };
     }
@@ -1,5 +1,6 @@
 package com.sdl.dxa.modules.degrees51.api;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sdl.webapp.common.api.WebRequestContext;
 import com.sdl.webapp.common.exceptions.DxaException;
 import fiftyone.mobile.detection.AutoUpdate;
@@ -8,6 +9,7 @@ import fiftyone.mobile.detection.IndirectDataset;
 import fiftyone.mobile.detection.Match;
 import fiftyone.mobile.detection.Provider;
 import fiftyone.mobile.detection.factories.StreamFactory;
+import lombok.Getter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
@@ -19,22 +21,37 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import static org.apache.commons.io.FileUtils.readFileToByteArray;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.apache.commons.lang3.StringUtils.isNumeric;
 import static org.joda.time.DateTime.now;
 
 /**
@@ -45,15 +62,29 @@ import static org.joda.time.DateTime.now;
 @Profile("51degrees.context.provider")
 public class Degrees51DataProvider {
 
-    private static final Semaphore liteFileWrite = new Semaphore(1);
+    private static final String NEXT_UPDATE_SUFFIX = ".nextupdate";
 
-    private static final Map<String, String> fileNamesByLicense = new HashMap<>();
+    private final Semaphore liteFileWrite = new Semaphore(1);
 
-    private static final Map<String, DateTime> fileNextUpdatesByNames = new HashMap<>();
+    private final Map<String, String> fileNamesByLicense = new ConcurrentHashMap<>();
 
-    private static final Map<String, DateTime> fileDelaysByNames = new HashMap<>();
+    private final Map<String, DateTime> fileNextUpdatesByNames = new ConcurrentHashMap<>();
 
-    private static final Map<String, Provider> dataProvidersByNames = new HashMap<>();
+    private final Map<String, DateTime> fileDelaysByNames = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Provider> dataProvidersByNames = new ConcurrentHashMap<>();
+
+    private final AtomicLong datasetVersion = new AtomicLong();
+
+    /**
+     * Matches hold the read lock while they use a provider, replacing a data file takes the write lock, so a data file
+     * is only replaced once no match reads it anymore and its provider is closed.
+     */
+    private final ReadWriteLock dataFilesLock = new ReentrantReadWriteLock();
+
+    private final Set<String> refreshesInFlight = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService refreshScheduler;
 
     @Autowired
     private WebRequestContext webRequestContext;
@@ -76,6 +107,9 @@ public class Degrees51DataProvider {
     @Value("${dxa.modules.51degrees.license}")
     private String preConfiguredLicenseKey;
 
+    @Value("${dxa.modules.51degrees.cache.size:32}")
+    private int matchCacheSize;
+
     /**
      * Tries to match user agent using 51degrees.
      *
@@ -83,6 +117,17 @@ public class Degrees51DataProvider {
      * @return match result
      */
     public Match match(String userAgent) {
+        CurrentDataset dataset = getCurrentDataset();
+        return dataset != null ? dataset.match(userAgent) : null;
+    }
+
+    /**
+     * Resolves the dataset user agents of the current request are matched against. The data file is resolved once,
+     * so the returned dataset can be used to both identify and match against it.
+     *
+     * @return the current dataset or null if there is no data file available
+     */
+    public CurrentDataset getCurrentDataset() {
         try {
             String fileName = getCurrentFileName();
 
@@ -91,18 +136,31 @@ public class Degrees51DataProvider {
                 return null;
             }
 
-            Provider provider = dataProvidersByNames.containsKey(fileName) ? dataProvidersByNames.get(fileName) :
-                    memorize(dataProvidersByNames, fileName, new Provider(StreamFactory.create(readFileToByteArray(new File(fileName))), 32));
+            return new CurrentDataset(this, fileName, fileName + "#" + datasetVersion.get());
+        } catch (Exception e) {
+            log.error("Exception while resolving the 51degrees data file", e);
+            return null;
+        }
+    }
+
+    private Match match(String fileName, String userAgent) {
+        dataFilesLock.readLock().lock();
+        try {
+            Provider provider = dataProvidersByNames.computeIfAbsent(fileName, this::loadProvider);
 
             return provider.match(userAgent);
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             log.error("Exception while trying to match", e);
+        } finally {
+            dataFilesLock.readLock().unlock();
         }
         return null;
     }
 
     @PostConstruct
     private void onAppStart() {
+        refreshScheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("51degrees-refresh-%d").setDaemon(true).build());
 
         log.debug("Check if the 51degrees licenseKey is in properties");
         if (!isEmpty(preConfiguredLicenseKey)) {
@@ -117,9 +175,42 @@ public class Degrees51DataProvider {
         }
     }
 
+    @PreDestroy
+    private void onAppStop() {
+        if (refreshScheduler != null) {
+            refreshScheduler.shutdownNow();
+        }
+        for (String fileName : dataProvidersByNames.keySet()) {
+            closeProvider(dataProvidersByNames.remove(fileName));
+        }
+    }
+
     @Scheduled(cron = "0 0 4 * * ?")
     private void updateLiteScheduled() {
-        updateLiteFile(RequestPending.OUTSIDE_REQUEST);
+        refreshScheduler.execute(() -> updateLiteFile(RequestPending.OUTSIDE_REQUEST));
+    }
+
+    /**
+     * Opens the data file as a stream dataset, which reads the file on demand through a pool of readers instead of
+     * loading its content on the heap.
+     */
+    private Provider loadProvider(String fileName) {
+        try {
+            return new Provider(StreamFactory.create(fileName, false), matchCacheSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeProvider(Provider provider) {
+        if (provider == null) {
+            return;
+        }
+        try {
+            provider.dataSet.close();
+        } catch (IOException e) {
+            log.warn("Exception while closing 51degrees dataset", e);
+        }
     }
 
     private String getCurrentFileName() {
@@ -167,41 +258,65 @@ public class Degrees51DataProvider {
             return fileExists;
         }
 
-        if (!fileExists && requestPending == RequestPending.PENDING_REQUEST) {
-            log.info("File {} needs an update but we have a pending request. " +
-                    "So we fallback to the next option (lite or default), set this file on pause, and update file in background", fileName);
+        if (requestPending == RequestPending.PENDING_REQUEST) {
+            if (fileExists) {
+                log.info("File {} needs an update but we have a pending request. " +
+                        "So we keep using the current file, and update file in background", fileName);
+            } else {
+                log.info("File {} needs an update but we have a pending request. " +
+                        "So we fallback to the next option (lite or default), set this file on pause, and update file in background", fileName);
+            }
             memorize(fileDelaysByNames, fileName, now().plusMinutes(fileUpdateReattemptDelayMinutes));
-            Executors.newSingleThreadExecutor().execute(new Runnable() {
-                @Override
-                public void run() {
-                    if (licenseKey == null) {
-                        updateLiteFileInternal();
-                    } else {
-                        updateDataFileInternal(licenseKey, fileName);
-                    }
-                }
-            });
-            return false;
+            refreshInBackground(licenseKey, fileName);
+            return fileExists;
         }
 
         log.info("File {} needs an update", fileName);
 
-        return licenseKey == null ? updateLiteFileInternal() : updateDataFileInternal(licenseKey, fileName);
+        return refresh(licenseKey, fileName);
+    }
+
+    private void refreshInBackground(final String licenseKey, final String fileName) {
+        if (refreshesInFlight.contains(fileName)) {
+            log.debug("51degrees data file {} is already being updated", fileName);
+            return;
+        }
+        try {
+            refreshScheduler.execute(() -> refresh(licenseKey, fileName));
+        } catch (RejectedExecutionException e) {
+            log.debug("51degrees refresh scheduler is shut down, not updating {}", fileName, e);
+        }
+    }
+
+    /**
+     * Updates the data file unless it is already being updated, there is at most one update of a file at a time.
+     */
+    private boolean refresh(String licenseKey, String fileName) {
+        if (!refreshesInFlight.add(fileName)) {
+            log.info("51degrees data file {} is already being updated, using the current one", fileName);
+            return new File(fileName).exists();
+        }
+        try {
+            return licenseKey == null ? updateLiteFileInternal() : updateDataFileInternal(licenseKey, fileName);
+        } finally {
+            refreshesInFlight.remove(fileName);
+        }
     }
 
     private boolean updateLiteFileInternal() {
         File liteFile = new File(liteFileLocation);
+        // download next to the data file, so it is only replaced by a complete download
+        File temp = new File(liteFileLocation + "." + UUID.randomUUID() + ".tmp");
+        boolean replaced = false;
         try {
-            File temp = new File(liteFileLocation + UUID.randomUUID());
             FileUtils.copyURLToFile(new URL(degrees51DataLiteUrl), temp,
                     fileLiteUpdateTimeoutMinutes * 60 * 1000 / 2,
                     fileLiteUpdateTimeoutMinutes * 60 * 1000);
             try {
                 liteFileWrite.acquire();
-                if (!deleteDataFile(liteFileLocation)) {
-                    throw new IOException("Could not delete Lite file, (access denied?)");
-                }
-                FileUtils.moveFile(temp, liteFile);
+                replaceDataFile(temp, liteFileLocation);
+                replaced = true;
+                FileUtils.deleteQuietly(new File(liteFileLocation + NEXT_UPDATE_SUFFIX));
             } finally {
                 liteFileWrite.release();
             }
@@ -209,20 +324,37 @@ public class Degrees51DataProvider {
             log.info("51degrees lite file is updated");
             getAndSetNextUpdate(liteFileLocation);
             memorize(fileDelaysByNames, liteFileLocation, now().plusMinutes(fileUpdateReattemptDelayMinutes));
-        } catch (IOException | InterruptedException e) {
+        } catch (IOException | UncheckedIOException | InterruptedException e) {
+            FileUtils.deleteQuietly(temp);
+            if (!replaced) {
+                log.error("Exception while downloading the 51degrees lite file, keeping the current one", e);
+                return liteFile.exists();
+            }
             log.error("Exception while updating the 51degrees lite file, deleting", e);
-            FileUtils.deleteQuietly(liteFile);
+            deleteDataFile(liteFileLocation);
             return false;
         }
         return true;
     }
 
+    /**
+     * Updates a copy of the data file, so the file the providers read is not replaced by the update while it is open,
+     * the updated copy then replaces the data file like a downloaded lite file.
+     */
     private boolean updateDataFileInternal(String licenseKey, String fileName) {
+        File dataFile = new File(fileName);
+        File staged = new File(fileName + "." + UUID.randomUUID() + ".tmp");
         try {
-            AutoUpdateStatus status = AutoUpdate.update(licenseKey, fileName);
+            if (dataFile.exists()) {
+                // the update of an existing file is only downloaded if there is a newer one
+                Files.copy(dataFile.toPath(), staged.toPath());
+            }
+            AutoUpdateStatus status = AutoUpdate.update(licenseKey, staged.getPath());
             switch (status) {
                 case AUTO_UPDATE_SUCCESS:
                     log.info("API: 51degrees data file has been updated");
+                    replaceDataFile(staged, fileName);
+                    FileUtils.deleteQuietly(new File(fileName + NEXT_UPDATE_SUFFIX));
                     getAndSetNextUpdate(fileName);
                     memorize(fileDelaysByNames, fileName, now().plusMinutes(fileUpdateReattemptDelayMinutes));
                     return true;
@@ -241,6 +373,8 @@ public class Degrees51DataProvider {
         } catch (Exception e) {
             log.error("Exception while updating 51degrees data file.", e);
             return false;
+        } finally {
+            FileUtils.deleteQuietly(staged);
         }
     }
 
@@ -286,21 +420,81 @@ public class Degrees51DataProvider {
     }
 
     private DateTime getAndSetNextUpdate(String fileName) throws IOException {
-        try (IndirectDataset dataset = StreamFactory.create(readFileToByteArray(new File(fileName)))) {
-            Date nextUpdate = dataset.nextUpdate;
-            log.trace("Next expected updated for {} is {}", fileName, nextUpdate);
-            return memorize(fileNextUpdatesByNames, fileName, new DateTime(nextUpdate));
+        Provider provider = dataProvidersByNames.get(fileName);
+        Date nextUpdate = provider != null ? provider.dataSet.nextUpdate : readNextUpdate(fileName);
+        log.trace("Next expected updated for {} is {}", fileName, nextUpdate);
+        return memorize(fileNextUpdatesByNames, fileName, new DateTime(nextUpdate));
+    }
+
+    /**
+     * Reads the next update date of a data file from its metadata file, or from the header of the dataset if there is
+     * no metadata for the current file yet. The dataset is opened as a stream like in {@link #loadProvider(String)},
+     * so only the header is read and not the whole file.
+     */
+    private Date readNextUpdate(String fileName) throws IOException {
+        File file = new File(fileName);
+        Path metadata = Paths.get(fileName + NEXT_UPDATE_SUFFIX);
+        String fileVersion = file.lastModified() + "," + file.length();
+        if (Files.exists(metadata)) {
+            String[] parts = new String(Files.readAllBytes(metadata), StandardCharsets.UTF_8).trim().split(",");
+            if (parts.length == 3 && fileVersion.equals(parts[0] + "," + parts[1]) && isNumeric(parts[2])) {
+                return new Date(Long.parseLong(parts[2]));
+            }
+        }
+
+        Date nextUpdate;
+        try (IndirectDataset dataset = StreamFactory.create(fileName, false)) {
+            nextUpdate = dataset.nextUpdate;
         }
+        try {
+            Files.write(metadata, (fileVersion + "," + nextUpdate.getTime()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("Could not write 51degrees metadata file {}", metadata, e);
+        }
+        return nextUpdate;
     }
 
-    private boolean deleteDataFile(String fileName) throws IOException {
-        if (dataProvidersByNames.containsKey(fileName)) {
-            Provider provider = dataProvidersByNames.get(fileName);
-            dataProvidersByNames.remove(fileName);
-            provider.dataSet.close();
+    /**
+     * Replaces the data file by the updated one. Its provider is closed first, once the matches which are still running
+     * on it are done, because an open data file can't be replaced on Windows, and a stream dataset would read the new
+     * file with the offsets of the old one. A provider for the new file is loaded on the next match.
+     */
+    private void replaceDataFile(File temp, String fileName) throws IOException {
+        dataFilesLock.writeLock().lock();
+        try {
+            closeProvider(dataProvidersByNames.remove(fileName));
+            datasetVersion.incrementAndGet();
+            try {
+                try {
+                    Files.move(temp.toPath(), Paths.get(fileName), StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp.toPath(), Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                log.debug("Could not replace {}, deleting it first", fileName, e);
+                if (!deleteDataFile(fileName)) {
+                    throw new IOException("Could not delete data file " + fileName + ", (access denied?)");
+                }
+                FileUtils.moveFile(temp, new File(fileName));
+            }
+        } finally {
+            dataFilesLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes the data file, after its provider is closed like in {@link #replaceDataFile(File, String)}.
+     */
+    private boolean deleteDataFile(String fileName) {
+        dataFilesLock.writeLock().lock();
+        try {
+            closeProvider(dataProvidersByNames.remove(fileName));
+            datasetVersion.incrementAndGet();
+            File file = new File(fileName);
+            return !file.exists() || FileUtils.deleteQuietly(file);
+        } finally {
+            dataFilesLock.writeLock().unlock();
         }
-        File file = new File(fileName);
-        return !file.exists() || FileUtils.deleteQuietly(file);
     }
 
     //todo dxa2 use CacheUtils
@@ -309,6 +503,36 @@ public class Degrees51DataProvider {
         return value;
     }
 
+    /**
+     * Data file resolved for a request. Its identifier changes whenever the dataset is updated, so results of
+     * {@link #match(String)} may be reused while it stays the same.
+     */
+    public static class CurrentDataset {
+
+        private final Degrees51DataProvider dataProvider;
+
+        private final String fileName;
+
+        @Getter
+        private final String id;
+
+        CurrentDataset(Degrees51DataProvider dataProvider, String fileName, String id) {
+            this.dataProvider = dataProvider;
+            this.fileName = fileName;
+            this.id = id;
+        }
+
+        /**
+         * Tries to match user agent against this dataset.
+         *
+         * @param userAgent user agent
+         * @return match result
+         */
+        public Match match(String userAgent) {
+            return dataProvider.match(fileName, userAgent);
+        }
+    }
+
     private enum RequestPending {
         PENDING_REQUEST, OUTSIDE_REQUEST
     }
@@ -3,6 +3,8 @@ package com.sdl.dxa.modules.degrees51.api.mapping;
 import fiftyone.mobile.detection.Match;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 
+import java.util.function.Function;
+
 import static com.sdl.webapp.common.util.ApplicationContextHolder.getContext;
 
 /**
@@ -11,6 +13,8 @@ import static com.sdl.webapp.common.util.ApplicationContextHolder.getContext;
  */
 public abstract class Degrees51Mapping<T> {
 
+    private volatile Object compiled;
+
     /**
      * Tries to resolve a registered mapping from Spring context by its name.
      * Typically name of this mapping is a DXA claim name.
@@ -78,6 +82,59 @@ public abstract class Degrees51Mapping<T> {
         return getProcessor().process(match, this);
     }
 
+    /**
+     * Compiles this mapping using the given resolver for the mappings it refers to.
+     * Registered mappings are compiled once on startup, other mappings are compiled on first use.
+     *
+     * @param resolver resolves mappings by their DXA key, returns <code>null</code> if there is no such mapping
+     */
+    public void compile(Function<String, Degrees51Mapping> resolver) {
+        compiled = getProcessor().compile(this, resolver);
+    }
+
+    /**
+     * Returns the compiled form of this mapping, compiling it if it was not compiled yet.
+     *
+     * @return result of {@link Degrees51Processor#compile(Degrees51Mapping, Function)} for this mapping
+     */
+    public Object getCompiled() {
+        Object result = compiled;
+        if (result == null) {
+            result = getProcessor().compile(this, Degrees51Mapping::retrieveMappingByDxaKey);
+            compiled = result;
+        }
+        return result;
+    }
+
+    /**
+     * Whether the value of this mapping depends on the current request and not only on the user agent.
+     *
+     * @return <code>true</code> if the processor is a {@link RequestExtractor}
+     */
+    public boolean isRequestDependent() {
+        return getProcessor() instanceof RequestExtractor;
+    }
+
+    /**
+     * Resolves the user agent dependent part of a request dependent value, see {@link RequestExtractor}.
+     *
+     * @param match match object from 51degrees
+     * @return user agent dependent part of the value, may be reused for requests with the same user agent
+     */
+    public Object prepare(Match match) {
+        return ((RequestExtractor<T>) getProcessor()).prepare(match, this);
+    }
+
+    /**
+     * Builds a request dependent value for the current request, see {@link RequestExtractor}.
+     *
+     * @param prepared result of {@link #prepare(Match)} for the user agent of the request
+     * @return a value or null if not found
+     */
+    public T complete(Object prepared) {
+        return ((RequestExtractor<T>) getProcessor()).complete(prepared, this);
+    }
+
     /**
      * Optional key/property in 51degrees or context. May return <code>null</code>.
      *
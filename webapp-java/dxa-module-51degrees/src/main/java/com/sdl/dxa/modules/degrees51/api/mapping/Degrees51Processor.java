@@ -4,6 +4,7 @@ import fiftyone.mobile.detection.Match;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.util.function.Function;
 
 /**
  * Instances of this class process {@link Match} to resolve needed value for {@link Degrees51Mapping}.
@@ -15,6 +16,18 @@ public abstract class Degrees51Processor<T> {
 
     protected abstract T processInternal(Match match, Degrees51Mapping mapping) throws IOException;
 
+    /**
+     * Prepares what this processor needs from the mapping, e.g. parses an expression in the mapping key and resolves
+     * the mappings it refers to, so that processing a match needs no parsing or lookups.
+     *
+     * @param mapping  mapping to compile
+     * @param resolver resolves other mappings by their DXA key, returns <code>null</code> if there is no such mapping
+     * @return compiled form of the mapping, see {@link Degrees51Mapping#getCompiled()}, <code>null</code> if nothing to compile
+     */
+    protected Object compile(Degrees51Mapping mapping, Function<String, Degrees51Mapping> resolver) {
+        return null;
+    }
+
     public T process(Match match, Degrees51Mapping mapping) {
         try {
             return processInternal(match, mapping);
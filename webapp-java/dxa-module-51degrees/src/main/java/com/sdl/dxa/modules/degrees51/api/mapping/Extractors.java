@@ -1,19 +1,24 @@
 package com.sdl.dxa.modules.degrees51.api.mapping;
 
+import com.google.common.collect.ImmutableSet;
 import fiftyone.mobile.detection.Match;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.function.Function;
 
-import static com.google.common.collect.Sets.newHashSet;
 import static com.sdl.dxa.modules.degrees51.api.mapping.Converters.TO_BOOLEAN;
 import static com.sdl.dxa.modules.degrees51.api.mapping.Degrees51Mapping.dummyMapping;
 import static com.sdl.webapp.common.util.ApplicationContextHolder.getContext;
@@ -25,19 +30,17 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 @Slf4j
 public final class Extractors {
 
-    public static final Extractor<Double> FROM_CONTEXT_COOKIE_DOUBLE = new FromContextCookie<Double>() {
+    public static final RequestExtractor<Double> FROM_CONTEXT_COOKIE_DOUBLE = new FromContextCookie<Double>() {
         @Override
-        protected Double extract(Match match, Degrees51Mapping mapping) {
-            String value = findInContextCookie(mapping.getKey());
-            return value != null ? Double.parseDouble(value) : null;
+        protected Double extractFromRequest(Object prepared, Degrees51Mapping mapping) {
+            return getContextCookie().getDouble(mapping.getKey());
         }
     };
 
-    public static final Extractor<Integer> FROM_CONTEXT_COOKIE_INTEGER = new FromContextCookie<Integer>() {
+    public static final RequestExtractor<Integer> FROM_CONTEXT_COOKIE_INTEGER = new FromContextCookie<Integer>() {
         @Override
-        protected Integer extract(Match match, Degrees51Mapping mapping) {
-            String value = findInContextCookie(mapping.getKey());
-            return value != null ? Integer.parseInt(value) : null;
+        protected Integer extractFromRequest(Object prepared, Degrees51Mapping mapping) {
+            return getContextCookie().getInteger(mapping.getKey());
         }
     };
 
@@ -50,29 +53,40 @@ public final class Extractors {
      */
     public static final Extractor<String> CONCAT_GIVEN = new Extractor<String>() {
         @Override
-        protected String extract(Match match, Degrees51Mapping mapping) {
-            StringBuilder sb = new StringBuilder();
+        protected Object compile(Degrees51Mapping mapping, Function<String, Degrees51Mapping> resolver) {
+            List<Object> parts = new ArrayList<>();
             StringTokenizer tokenizer = new StringTokenizer(mapping.getKey(), "+");
             while (tokenizer.hasMoreTokens()) {
                 String token = tokenizer.nextToken().trim();
 
                 if (token.startsWith("\'") && token.endsWith("\'")) {
-                    sb.append(token.substring(1, token.length() - 1));
+                    parts.add(token.substring(1, token.length() - 1));
                     continue;
                 }
 
-                Degrees51Mapping degrees51Mapping = Degrees51Mapping.retrieveMappingByDxaKey(token);
+                Degrees51Mapping degrees51Mapping = resolver.apply(token);
                 if (degrees51Mapping == null) {
                     log.warn("Incorrect mapping found for {}, couldn't resolve mapping for {}", mapping, token);
                     continue;
                 }
 
-                sb.append(degrees51Mapping.process(match));
+                parts.add(degrees51Mapping);
+            }
+            return parts.toArray();
+        }
+
+        @Override
+        protected String extract(Match match, Degrees51Mapping mapping) {
+            StringBuilder sb = new StringBuilder();
+            for (Object part : (Object[]) mapping.getCompiled()) {
+                sb.append(part instanceof Degrees51Mapping ? ((Degrees51Mapping) part).process(match) : part);
             }
             return sb.toString();
         }
     };
 
+    private static volatile Helper helper;
+
     private Extractors() {
     }
 
@@ -86,26 +100,29 @@ public final class Extractors {
     }
 
     public static Extractor<Set<String>> ifKeyThenSetOf(final Set<String> alwaysIn, final String... conditionalValues) {
+        final Set<String> otherwise = ImmutableSet.copyOf(alwaysIn);
+        final Set<String> ifKey = ImmutableSet.<String>builder().addAll(alwaysIn).add(conditionalValues).build();
         return new Extractor<Set<String>>() {
             @Override
-            protected Set<String> extract(Match match, Degrees51Mapping mapping) {
-                String key = mapping.getKey();
-
-                boolean condition = false;
-                StringTokenizer tokenizer = new StringTokenizer(key, "|");
+            protected Object compile(Degrees51Mapping mapping, Function<String, Degrees51Mapping> resolver) {
+                List<Degrees51Mapping<Boolean>> conditions = new ArrayList<>();
+                StringTokenizer tokenizer = new StringTokenizer(mapping.getKey(), "|");
                 while (tokenizer.hasMoreTokens()) {
-                    Boolean res = dummyMapping(tokenizer.nextToken().trim(), TO_BOOLEAN).process(match);
-                    condition = res != null && res;
-                    if (condition) {
-                        break;
-                    }
+                    conditions.add(dummyMapping(tokenizer.nextToken().trim(), TO_BOOLEAN));
                 }
+                return conditions;
+            }
 
-                Set<String> result = newHashSet(alwaysIn);
-                if (condition) {
-                    result.addAll(Arrays.asList(conditionalValues));
+            @Override
+            @SuppressWarnings("unchecked")
+            protected Set<String> extract(Match match, Degrees51Mapping mapping) {
+                for (Degrees51Mapping<Boolean> condition : (List<Degrees51Mapping<Boolean>>) mapping.getCompiled()) {
+                    Boolean res = condition.process(match);
+                    if (res != null && res) {
+                        return ifKey;
+                    }
                 }
-                return result;
+                return otherwise;
             }
         };
     }
@@ -123,32 +140,88 @@ public final class Extractors {
         };
     }
 
-    private abstract static class FromContextCookie<T> extends Extractor<T> {
-
-        private String getContextCookie() {
-            Cookie[] cookies = getContext().getBean(Helper.class).getCookies();
-            if (cookies != null) {
+    private abstract static class FromContextCookie<T> extends RequestExtractor<T> {
 
-                for (Cookie cookie : cookies) {
-                    if (Objects.equals("context", cookie.getName())) {
-                        return cookie.getValue();
-                    }
-                }
+        ContextCookie getContextCookie() {
+            Helper current = helper;
+            if (current == null) {
+                current = getContext().getBean(Helper.class);
             }
+            return current.getContextCookie();
+        }
+    }
+
+    /**
+     * Values of the context cookie, e.g. <code>dpr~1|dw~1025|dh~641|</code>, parsed once per request.
+     */
+    static final class ContextCookie {
+
+        private static final ContextCookie EMPTY = new ContextCookie(Collections.<String, String>emptyMap());
 
-            return null;
+        private final Map<String, String> values;
+
+        private ContextCookie(Map<String, String> values) {
+            this.values = values;
         }
 
-        String findInContextCookie(String key) {
-            String contextCookie = getContextCookie();
-            if (isEmpty(contextCookie)) {
+        /**
+         * Parses the value of the context cookie. Entries without a '~' are skipped.
+         *
+         * @param cookie value of the context cookie, may be <code>null</code>
+         * @return parsed cookie, never <code>null</code>
+         */
+        static ContextCookie parse(String cookie) {
+            if (isEmpty(cookie)) {
                 log.info("ContextCookie is null or empty, is it first request?");
-                return null;
+                return EMPTY;
             }
 
-            String findStr = "|" + key + "~";
-            String sub = contextCookie.substring(contextCookie.indexOf(findStr) + findStr.length());
-            return sub.substring(0, sub.indexOf("|"));
+            Map<String, String> values = new HashMap<>(16);
+            int start = 0;
+            while (start < cookie.length()) {
+                int end = cookie.indexOf('|', start);
+                if (end < 0) {
+                    end = cookie.length();
+                }
+                int separator = cookie.indexOf('~', start);
+                if (separator > start && separator < end) {
+                    values.put(cookie.substring(start, separator), cookie.substring(separator + 1, end));
+                }
+                start = end + 1;
+            }
+            return new ContextCookie(values);
+        }
+
+        Integer getInteger(String key) {
+            String value = values.get(key);
+            return isNumber(value, false) ? Integer.valueOf(value) : null;
+        }
+
+        Double getDouble(String key) {
+            String value = values.get(key);
+            return isNumber(value, true) ? Double.valueOf(value) : null;
+        }
+
+        /**
+         * Checks the value beforehand, so a malformed cookie doesn't cause an exception for every claim.
+         */
+        private static boolean isNumber(String value, boolean decimal) {
+            if (value == null || value.isEmpty() || !decimal && value.length() > 9) {
+                return false;
+            }
+            boolean digits = false;
+            boolean point = false;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    digits = true;
+                } else if (c == '.' && decimal && !point) {
+                    point = true;
+                } else if (!(c == '-' && i == 0)) {
+                    return false;
+                }
+            }
+            return digits;
         }
     }
 
@@ -160,11 +233,43 @@ public final class Extractors {
     @Component
     public static class Helper {
 
+        private static final String CONTEXT_COOKIE_ATTRIBUTE = ContextCookie.class.getName();
+
         @Autowired
         private HttpServletRequest httpServletRequest;
 
+        @PostConstruct
+        public void init() {
+            helper = this;
+        }
+
         Cookie[] getCookies() {
             return httpServletRequest.getCookies();
         }
+
+        /**
+         * Returns the context cookie of the current request, it is parsed on first access and kept in the request.
+         */
+        ContextCookie getContextCookie() {
+            Object parsed = httpServletRequest.getAttribute(CONTEXT_COOKIE_ATTRIBUTE);
+            if (parsed instanceof ContextCookie) {
+                return (ContextCookie) parsed;
+            }
+
+            String value = null;
+            Cookie[] cookies = getCookies();
+            if (cookies != null) {
+                for (Cookie cookie : cookies) {
+                    if (Objects.equals("context", cookie.getName())) {
+                        value = cookie.getValue();
+                        break;
+                    }
+                }
+            }
+
+            ContextCookie contextCookie = ContextCookie.parse(value);
+            httpServletRequest.setAttribute(CONTEXT_COOKIE_ATTRIBUTE, contextCookie);
+            return contextCookie;
+        }
     }
 }
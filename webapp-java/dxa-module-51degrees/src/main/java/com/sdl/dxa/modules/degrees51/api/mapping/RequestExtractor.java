@@ -0,0 +1,48 @@
+package com.sdl.dxa.modules.degrees51.api.mapping;
+
+import fiftyone.mobile.detection.Match;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * RequestExtractor is a type of {@link Extractor} for values that depend on the current request (e.g. on the context
+ * cookie) and not only on the user agent.
+ * <p>The value is resolved in two steps: {@link #prepare(Match, Degrees51Mapping)} takes what is needed from the match,
+ * its result only depends on the user agent and may be reused for other requests with the same user agent.
+ * {@link #complete(Object, Degrees51Mapping)} then builds the value for the current request.</p>
+ *
+ * @param <T> type of the expected value
+ */
+@Slf4j
+public abstract class RequestExtractor<T> extends Extractor<T> {
+
+    /**
+     * Resolves the part of the value that only depends on the user agent.
+     *
+     * @param match   match object from 51degrees
+     * @param mapping current mapping
+     * @return user agent dependent part of the value, {@code null} by default as nothing is needed from the match
+     */
+    public Object prepare(Match match, Degrees51Mapping mapping) {
+        return null;
+    }
+
+    /**
+     * Builds the value for the current request.
+     *
+     * @param prepared result of {@link #prepare(Match, Degrees51Mapping)} for the user agent of the request
+     * @param mapping  current mapping
+     * @return a value or null if not found
+     */
+    public T complete(Object prepared, Degrees51Mapping mapping) {
+        T result = extractFromRequest(prepared, mapping);
+        log.debug("Extracted value '{}' from request using mapping {}", result, mapping);
+        return result;
+    }
+
+    protected abstract T extractFromRequest(Object prepared, Degrees51Mapping mapping);
+
+    @Override
+    protected T extract(Match match, Degrees51Mapping mapping) {
+        return extractFromRequest(prepare(match, mapping), mapping);
+    }
+}
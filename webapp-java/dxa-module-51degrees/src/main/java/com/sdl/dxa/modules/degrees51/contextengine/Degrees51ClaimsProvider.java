@@ -1,5 +1,8 @@
 package com.sdl.dxa.modules.degrees51.contextengine;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.sdl.dxa.modules.degrees51.api.Degrees51DataProvider;
 import com.sdl.dxa.modules.degrees51.api.mapping.Degrees51Mapping;
 import com.sdl.webapp.common.api.contextengine.ContextClaimsProvider;
@@ -7,16 +10,26 @@ import com.sdl.webapp.common.exceptions.DxaException;
 import fiftyone.mobile.detection.Match;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.apache.commons.lang3.StringUtils.defaultString;
+
+/**
+ * Resolves context claims using 51degrees.
+ * <p>Claims which only depend on the user agent are cached per user agent and dataset, so a repeated user agent
+ * doesn't need a 51degrees match. Claims that depend on the request (like the ones from the context cookie)
+ * are added to the cached ones on every request.</p>
+ */
 @Slf4j
 @Component
 @Profile("51degrees.context.provider")
@@ -33,6 +46,19 @@ public class Degrees51ClaimsProvider implements ContextClaimsProvider {
     @Autowired
     private HttpServletRequest request;
 
+    @Value("${dxa.modules.51degrees.claims.cache.size:2000}")
+    private long claimsCacheSize = 2000;
+
+    private Cache<String, UserAgentClaims> userAgentClaims;
+
+    @PostConstruct
+    public void init() {
+        userAgentClaims = CacheBuilder.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .recordStats()
+                .build();
+    }
+
     @Override
     public Map<String, Object> getContextClaims(String aspectName) throws DxaException {
         log.trace("51degrees.context.provider activated");
@@ -40,8 +66,24 @@ public class Degrees51ClaimsProvider implements ContextClaimsProvider {
         String userAgent = request.getHeader("user-agent");
         log.trace("UserAgent is {}", userAgent);
 
-        Match match = degrees51DataProvider.match(userAgent);
-        return match != null ? map(match) : Collections.<String, Object>emptyMap();
+        Degrees51DataProvider.CurrentDataset dataset = degrees51DataProvider.getCurrentDataset();
+        if (dataset == null) {
+            return Collections.emptyMap();
+        }
+
+        String key = dataset.getId() + "\n" + defaultString(userAgent);
+        UserAgentClaims claims = userAgentClaims == null ? null : userAgentClaims.getIfPresent(key);
+        if (claims == null) {
+            Match match = dataset.match(userAgent);
+            if (match == null) {
+                return Collections.emptyMap();
+            }
+            claims = resolve(match);
+            if (userAgentClaims != null) {
+                userAgentClaims.put(key, claims);
+            }
+        }
+        return complete(claims);
     }
 
     @Override
@@ -49,13 +91,54 @@ public class Degrees51ClaimsProvider implements ContextClaimsProvider {
         return null;
     }
 
+    /**
+     * Statistics of the cache of user agent claims, the hit rate shows how many requests needed no 51degrees match.
+     *
+     * @return cache statistics
+     */
+    public CacheStats getUserAgentCacheStats() {
+        return userAgentClaims == null ? new CacheStats(0, 0, 0, 0, 0, 0) : userAgentClaims.stats();
+    }
+
     Map<String, Object> map(Match match) {
-        Map<String, Object> result = new HashMap<>();
+        return complete(resolve(match));
+    }
+
+    private UserAgentClaims resolve(Match match) {
+        Map<String, Object> claims = new HashMap<>();
+        Map<String, Object> prepared = new HashMap<>();
         for (Degrees51Mapping mapping : mappings) {
-            result.put(mapping.getKeyDxa(), mapping.process(match));
+            if (mapping.isRequestDependent()) {
+                prepared.put(mapping.getKeyDxa(), mapping.prepare(match));
+            } else {
+                claims.put(mapping.getKeyDxa(), mapping.process(match));
+            }
         }
+        return new UserAgentClaims(claims, prepared);
+    }
 
+    private Map<String, Object> complete(UserAgentClaims claims) {
+        Map<String, Object> result = new HashMap<>(claims.claims);
+        for (Degrees51Mapping mapping : mappings) {
+            if (mapping.isRequestDependent()) {
+                result.put(mapping.getKeyDxa(), mapping.complete(claims.prepared.get(mapping.getKeyDxa())));
+            }
+        }
         return result;
     }
 
+    /**
+     * Claims of a user agent, with the values request dependent claims need from the match.
+     */
+    private static final class UserAgentClaims {
+
+        private final Map<String, Object> claims;
+
+        private final Map<String, Object> prepared;
+
+        private UserAgentClaims(Map<String, Object> claims, Map<String, Object> prepared) {
+            this.claims = Collections.unmodifiableMap(claims);
+            this.prepared = Collections.unmodifiableMap(prepared);
+        }
+    }
 }
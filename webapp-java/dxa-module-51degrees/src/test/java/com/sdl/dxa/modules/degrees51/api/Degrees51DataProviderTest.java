@@ -0,0 +1,122 @@
+package com.sdl.dxa.modules.degrees51.api;
+
+import fiftyone.mobile.detection.Dataset;
+import fiftyone.mobile.detection.Provider;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class Degrees51DataProviderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Degrees51DataProvider dataProvider;
+
+    @Before
+    public void setUp() {
+        dataProvider = new Degrees51DataProvider();
+    }
+
+    @Test
+    public void shouldCloseProviderOfOpenFileBeforeReplacingIt() throws Exception {
+        //given
+        File dataFile = folder.newFile("51Degrees-Lite.dat");
+        Files.write(dataFile.toPath(), "old".getBytes(StandardCharsets.UTF_8));
+        File update = folder.newFile("51Degrees-Lite.dat.tmp");
+        Files.write(update.toPath(), "new".getBytes(StandardCharsets.UTF_8));
+
+        // the dataset keeps the data file open until it is closed, like a stream dataset
+        InputStream openFile = new FileInputStream(dataFile);
+        List<String> contentWhenClosed = new ArrayList<>();
+        Dataset dataset = mock(Dataset.class);
+        doAnswer(invocation -> {
+            contentWhenClosed.add(new String(Files.readAllBytes(dataFile.toPath()), StandardCharsets.UTF_8));
+            openFile.close();
+            return null;
+        }).when(dataset).close();
+        Provider provider = mock(Provider.class);
+        ReflectionTestUtils.setField(provider, "dataSet", dataset);
+        providers().put(dataFile.getPath(), provider);
+        long datasetVersion = datasetVersion();
+
+        //when
+        ReflectionTestUtils.invokeMethod(dataProvider, "replaceDataFile", update, dataFile.getPath());
+
+        //then
+        verify(dataset).close();
+        assertEquals("old", contentWhenClosed.get(0));
+        assertEquals("new", new String(Files.readAllBytes(dataFile.toPath()), StandardCharsets.UTF_8));
+        assertFalse(update.exists());
+        assertFalse(providers().containsKey(dataFile.getPath()));
+        assertEquals(datasetVersion + 1, datasetVersion());
+    }
+
+    @Test
+    public void shouldCloseProviderOfOpenFileBeforeDeletingIt() throws Exception {
+        //given
+        File dataFile = folder.newFile("51Degrees-Lite.dat");
+        InputStream openFile = new FileInputStream(dataFile);
+        Dataset dataset = mock(Dataset.class);
+        doAnswer(invocation -> {
+            openFile.close();
+            return null;
+        }).when(dataset).close();
+        Provider provider = mock(Provider.class);
+        ReflectionTestUtils.setField(provider, "dataSet", dataset);
+        providers().put(dataFile.getPath(), provider);
+
+        //when
+        boolean deleted = ReflectionTestUtils.invokeMethod(dataProvider, "deleteDataFile", dataFile.getPath());
+
+        //then
+        assertTrue(deleted);
+        assertFalse(dataFile.exists());
+        assertFalse(providers().containsKey(dataFile.getPath()));
+        verify(dataset).close();
+    }
+
+    @Test
+    public void shouldReadNextUpdateFromMetadataOfCurrentFile() throws Exception {
+        //given
+        File dataFile = folder.newFile("51Degrees-Lite.dat");
+        Files.write(dataFile.toPath(), new byte[]{1, 2, 3});
+        String metadata = dataFile.lastModified() + "," + dataFile.length() + ",1500000000000";
+        Files.write(new File(dataFile.getPath() + ".nextupdate").toPath(), metadata.getBytes(StandardCharsets.UTF_8));
+
+        //when
+        Date nextUpdate = ReflectionTestUtils.invokeMethod(dataProvider, "readNextUpdate", dataFile.getPath());
+
+        //then
+        assertEquals(new Date(1500000000000L), nextUpdate);
+    }
+
+    private long datasetVersion() {
+        return ((AtomicLong) ReflectionTestUtils.getField(dataProvider, "datasetVersion")).get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Provider> providers() {
+        return (Map<String, Provider>) ReflectionTestUtils.getField(dataProvider, "dataProvidersByNames");
+    }
+}
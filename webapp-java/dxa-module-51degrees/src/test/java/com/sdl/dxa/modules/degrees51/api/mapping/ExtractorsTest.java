@@ -16,8 +16,11 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.support.AnnotationConfigContextLoader;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -52,6 +55,36 @@ public class ExtractorsTest {
         assertEquals("Windows Chrome_Desktop49", result);
     }
 
+    @Test
+    public void shouldConcatenateUsingMappingsResolvedOnCompile() {
+        //given
+        final Map<String, Degrees51Mapping> mappings = new HashMap<>();
+        mappings.put("browser.model", Degrees51Mapping.createMapping("browser.model", "", SpringConfigurationContext.mockProcessor("Edge")));
+        mappings.put("browser.version", Degrees51Mapping.createMapping("browser.version", "", SpringConfigurationContext.mockProcessor(18)));
+        Degrees51Mapping<String> mapping = Degrees51Mapping.createMapping("test.property", "browser.model + '/' + browser.version", Extractors.CONCAT_GIVEN);
+
+        //when
+        mapping.compile(mappings::get);
+        String result = mapping.process(mock(Match.class));
+
+        //then
+        assertEquals("Edge/18", result);
+    }
+
+    @Test
+    public void shouldParseContextCookieAndSkipMalformedValues() {
+        //when
+        Extractors.ContextCookie cookie = Extractors.ContextCookie.parse("dpr~1.5|dw~abc|dh|~5|bw~1024|bh~|bcd~99999999999|");
+
+        //then
+        assertEquals(Double.valueOf(1.5), cookie.getDouble("dpr"));
+        assertEquals(Integer.valueOf(1024), cookie.getInteger("bw"));
+        assertNull(cookie.getInteger("dw"));
+        assertNull(cookie.getInteger("dh"));
+        assertNull(cookie.getInteger("bh"));
+        assertNull(cookie.getInteger("bcd"));
+        assertNull(Extractors.ContextCookie.parse(null).getInteger("bw"));
+    }
 
     @Configuration
     @Profile("test")
@@ -1,5 +1,6 @@
 package com.sdl.dxa.modules.degrees51.contextengine;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
 import com.sdl.dxa.modules.degrees51.Degrees51SpringContext;
 import com.sdl.dxa.modules.degrees51.api.Degrees51DataProvider;
@@ -7,6 +8,7 @@ import com.sdl.dxa.modules.degrees51.api.mapping.Extractors;
 import com.sdl.webapp.common.util.ApplicationContextHolder;
 import fiftyone.mobile.detection.Match;
 import fiftyone.mobile.detection.entities.Values;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +21,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.support.AnnotationConfigContextLoader;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
@@ -28,8 +31,11 @@ import java.util.Objects;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasEntry;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -43,6 +49,12 @@ public class Degrees51ClaimsProviderTest {
     @Autowired
     private HttpServletRequest httpServletRequest;
 
+    @Before
+    public void setUp() {
+        // every test is a new request
+        ((MockHttpServletRequest) httpServletRequest).clearAttributes();
+    }
+
     @Test
     public void shouldMapKnownPropertiesFrom51DegreesToOurModel() throws IOException {
         //given
@@ -142,6 +154,43 @@ public class Degrees51ClaimsProviderTest {
         }
     }
 
+    @Test
+    public void shouldMatchUserAgentOnceAndAddCookieClaimsPerRequest() throws Exception {
+        //given
+        MockHttpServletRequest request = (MockHttpServletRequest) httpServletRequest;
+        request.addHeader("user-agent", "Mozilla/5.0 (Windows NT 6.3) Chrome/42.0");
+        Degrees51DataProvider degrees51DataProvider = mock(Degrees51DataProvider.class);
+        ReflectionTestUtils.setField(degrees51ClaimsProvider, "degrees51DataProvider", degrees51DataProvider);
+        Match match = mock(Match.class);
+        mockMatch(match, "BrowserName", "Chrome");
+        mockMatch(match, "ScreenInchesDiagonal", "21");
+        Degrees51DataProvider.CurrentDataset dataset = mock(Degrees51DataProvider.CurrentDataset.class);
+        when(dataset.getId()).thenReturn("lite#1");
+        when(dataset.match("Mozilla/5.0 (Windows NT 6.3) Chrome/42.0")).thenReturn(match);
+        when(degrees51DataProvider.getCurrentDataset()).thenReturn(dataset);
+        CacheStats before = degrees51ClaimsProvider.getUserAgentCacheStats();
+
+        //when
+        request.setCookies(new Cookie("context", "dpr~1|dw~1025|dh~641|bcd~32|bw~1024|bh~640|version~1|"));
+        Map<String, Object> first = degrees51ClaimsProvider.getContextClaims(null);
+        request.clearAttributes();
+        request.setCookies(new Cookie("context", "dpr~2|dw~2050|dh~1282|bcd~32|bw~2048|bh~1280|version~1|"));
+        Map<String, Object> second = degrees51ClaimsProvider.getContextClaims(null);
+
+        //then
+        assertThat(first, hasEntry("browser.model", (Object) "Chrome"));
+        assertThat(first, hasEntry("device.displayWidth", (Object) 1025));
+        assertThat(first, hasEntry("device.pixelDensity", (Object) 58));
+        assertThat(second, hasEntry("browser.model", (Object) "Chrome"));
+        assertThat(second, hasEntry("device.displayWidth", (Object) 2050));
+        assertThat(second, hasEntry("device.pixelDensity", (Object) 115));
+        verify(degrees51DataProvider, times(2)).getCurrentDataset();
+        verify(dataset, times(1)).match("Mozilla/5.0 (Windows NT 6.3) Chrome/42.0");
+        CacheStats stats = degrees51ClaimsProvider.getUserAgentCacheStats().minus(before);
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
     private <T> void mockMatch(Match match, String propertyName, T value) throws IOException {
         String string = Objects.toString(value);
 
@@ -1,5 +1,6 @@
 package com.sdl.dxa.modules.context.builder;
 
+import com.google.common.collect.ImmutableSet;
 import com.sdl.dxa.api.datamodel.model.ContentModelData;
 import com.sdl.dxa.api.datamodel.model.EntityModelData;
 import com.sdl.dxa.api.datamodel.model.util.ListWrapper;
@@ -18,8 +19,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 
-import static com.google.common.collect.Sets.newHashSet;
-
 @Component
 @Slf4j
 public class ContextExpressionModelBuilder implements EntityModelBuilder, Ordered {
@@ -58,7 +57,7 @@ public class ContextExpressionModelBuilder implements EntityModelBuilder, Ordere
 
     @NotNull
     private <T extends EntityModel> T applyConditions(T originalEntityModel, Collection<String> includeCx, Collection<String> excludeCx) {
-        Conditions conditions = new Conditions(newHashSet(includeCx), newHashSet(excludeCx));
+        Conditions conditions = new Conditions(ImmutableSet.copyOf(includeCx), ImmutableSet.copyOf(excludeCx));
 
         log.debug("Found these context expressions {}", conditions);
 
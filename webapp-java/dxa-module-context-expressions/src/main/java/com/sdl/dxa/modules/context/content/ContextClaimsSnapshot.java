@@ -0,0 +1,34 @@
+package com.sdl.dxa.modules.context.content;
+
+import com.sdl.webapp.common.api.contextengine.ContextClaims;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable view of the context claims of the current request. Claims are resolved only once per request,
+ * and the boolean value of a claim is only cast once, no matter how many entities refer to it.
+ */
+final class ContextClaimsSnapshot {
+
+    private final Map<String, Object> claims;
+
+    private final ConcurrentMap<String, Boolean> booleanClaims = new ConcurrentHashMap<>();
+
+    ContextClaimsSnapshot(@Nullable Map<String, Object> claims) {
+        this.claims = claims == null ? Collections.emptyMap() : Collections.unmodifiableMap(new HashMap<>(claims));
+    }
+
+    boolean hasClaim(String claimName) {
+        return claims.containsKey(claimName);
+    }
+
+    boolean isTrue(String claimName) {
+        return booleanClaims.computeIfAbsent(claimName,
+                name -> Boolean.TRUE.equals(ContextClaims.castClaim(claims.get(name), Boolean.class)));
+    }
+}
@@ -3,20 +3,19 @@ package com.sdl.dxa.modules.context.content;
 import com.sdl.dxa.modules.context.model.Conditions;
 import com.sdl.webapp.common.api.content.ConditionalEntityEvaluator;
 import com.sdl.webapp.common.api.content.ContentProviderException;
-import com.sdl.webapp.common.api.contextengine.ContextClaims;
 import com.sdl.webapp.common.api.contextengine.ContextClaimsProvider;
 import com.sdl.webapp.common.api.model.EntityModel;
 import com.sdl.webapp.common.api.model.ViewModel;
 import com.sdl.webapp.common.exceptions.DxaException;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -28,6 +27,8 @@ import java.util.Set;
 @Slf4j
 public class ContextExpressionEntityEvaluator implements ConditionalEntityEvaluator {
 
+    private static final String CLAIMS_SNAPSHOT_ATTRIBUTE = ContextExpressionEntityEvaluator.class.getName() + ".contextClaims";
+
     @Autowired
     private ContextClaimsProvider contextClaimsProvider;
 
@@ -59,7 +60,7 @@ public class ContextExpressionEntityEvaluator implements ConditionalEntityEvalua
         }
 
         try {
-            Map<String, Object> contextClaims = contextClaimsProvider.getContextClaims(null);
+            ContextClaimsSnapshot contextClaims = getContextClaims();
 
             if (shouldBeIncluded(conditions.getIncludes(), contextClaims)) {
                 if (shouldBeExcluded(conditions.getExcludes(), contextClaims)) {
@@ -85,22 +86,9 @@ public class ContextExpressionEntityEvaluator implements ConditionalEntityEvalua
      * @param contextClaims
      * @return
      */
-    private boolean shouldBeIncluded(@Nullable Set<String> contextExpressions, @NonNull Map<String, Object> contextClaims) {
-        //if set is null, then we don't process, and return TRUE for "included"
-        if (contextExpressions == null || contextExpressions.isEmpty()) {
-            log.debug("Context expression set is empty or null, ignoring");
-            return true;
-        }
-
-        //ignore any unknown claims
-        Set<String> filtered = filterCxsByClaims(contextExpressions, contextClaims);
-        if (filtered.isEmpty()) {
-            log.debug("Filtered context expressions set is empty, meaning expressions are not in context claims");
-            //if set is empty, then we don't process, and return TRUE for "included"
-            return true;
-        }
-
-        return anyCxIsTrue(filtered, contextClaims);
+    private boolean shouldBeIncluded(@Nullable Set<String> contextExpressions, @NonNull ContextClaimsSnapshot contextClaims) {
+        //if set is null or has no known claims, then we don't process, and return TRUE for "included"
+        return evaluate(contextExpressions, contextClaims, true);
     }
 
     /**
@@ -110,50 +98,58 @@ public class ContextExpressionEntityEvaluator implements ConditionalEntityEvalua
      * @param contextClaims
      * @return
      */
-    private boolean shouldBeExcluded(@Nullable Set<String> contentExpressions, @NonNull Map<String, Object> contextClaims) {
-        //if set is null, then we don't process, and return FALSE for "not excluded"
-        if (contentExpressions == null || contentExpressions.isEmpty()) {
-            log.debug("Context expression set is empty or null, ignoring");
-            return false;
-        }
-
-        //ignore any unknown claims
-        Set<String> filtered = filterCxsByClaims(contentExpressions, contextClaims);
-        if (filtered.isEmpty()) {
-            log.debug("Filtered context expressions set is empty, meaning expressions are not in context claims");
-            //if set is empty, then we don't process, and return FALSE for "not excluded"
-            return false;
-        }
-
-        return anyCxIsTrue(filtered, contextClaims);
+    private boolean shouldBeExcluded(@Nullable Set<String> contentExpressions, @NonNull ContextClaimsSnapshot contextClaims) {
+        //if set is null or has no known claims, then we don't process, and return FALSE for "not excluded"
+        return evaluate(contentExpressions, contextClaims, false);
     }
 
-    @NotNull
-    private Set<String> filterCxsByClaims(@NonNull Set<String> contextExpressions, @NonNull Map<String, Object> contextClaims) {
-        Set<String> filtered = new HashSet<>();
-        for (String claimName : contextExpressions) {
-            if (contextClaims.containsKey(claimName)) {
-                filtered.add(claimName);
-            }
-        }
-        return filtered;
-    }
-
-    private boolean anyCxIsTrue(@NonNull Set<String> contextExpressions, @NonNull Map<String, Object> contextClaims) {
+    /**
+     * Returns whether any of the expressions is a TRUE claim. Unknown claims are ignored,
+     * if there are no known claims at all then {@code ifNothingToEvaluate} is returned.
+     */
+    private boolean evaluate(@Nullable Set<String> contextExpressions, @NonNull ContextClaimsSnapshot contextClaims,
+                             boolean ifNothingToEvaluate) {
         if (contextExpressions == null || contextExpressions.isEmpty()) {
-            //No expressions
-            return true;
+            log.debug("Context expression set is empty or null, ignoring");
+            return ifNothingToEvaluate;
         }
+
+        boolean anyKnownClaim = false;
         for (String claimName : contextExpressions) {
-            Boolean claimValue = ContextClaims.castClaim(contextClaims.get(claimName), Boolean.class);
-            if (Boolean.TRUE.equals(claimValue)) {
+            if (!contextClaims.hasClaim(claimName)) {
+                continue;
+            }
+            if (contextClaims.isTrue(claimName)) {
                 return true;
             }
+            anyKnownClaim = true;
+        }
+
+        if (!anyKnownClaim) {
+            log.debug("Filtered context expressions set is empty, meaning expressions are not in context claims");
+            return ifNothingToEvaluate;
         }
         //No satisfied claims
         return false;
     }
 
+    /**
+     * Resolves context claims once per request, all entities of the request are evaluated against the same snapshot.
+     */
+    private ContextClaimsSnapshot getContextClaims() throws DxaException {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return new ContextClaimsSnapshot(contextClaimsProvider.getContextClaims(null));
+        }
+
+        ContextClaimsSnapshot snapshot = (ContextClaimsSnapshot) requestAttributes.getAttribute(CLAIMS_SNAPSHOT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (snapshot == null) {
+            snapshot = new ContextClaimsSnapshot(contextClaimsProvider.getContextClaims(null));
+            requestAttributes.setAttribute(CLAIMS_SNAPSHOT_ATTRIBUTE, snapshot, RequestAttributes.SCOPE_REQUEST);
+        }
+        return snapshot;
+    }
+
     private enum Mode {
         /**
          * This is include condition.
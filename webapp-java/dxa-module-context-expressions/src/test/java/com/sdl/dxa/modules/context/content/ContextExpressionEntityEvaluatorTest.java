@@ -9,7 +9,10 @@ import com.sdl.webapp.common.exceptions.DxaException;
 import lombok.AllArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -22,6 +25,8 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ContextExpressionEntityEvaluatorTest {
@@ -290,6 +295,33 @@ public class ContextExpressionEntityEvaluatorTest {
         assertTrue("ContextClaims exception = include entity", includeEntity);
     }
 
+    @Test
+    public void shouldResolveContextClaimsOncePerRequest() throws Exception {
+        //given
+        ContextExpressionEntityEvaluator evaluator = new ContextExpressionEntityEvaluator();
+        ReflectionTestUtils.setField(evaluator, "contextExpressionsKey", CONTEXT_EXPRESSIONS_KEY);
+        ContextClaimsProvider contextClaimsProvider = mock(ContextClaimsProvider.class);
+        when(contextClaimsProvider.getContextClaims(any())).thenReturn(getContextClaimsForIPhone());
+        ReflectionTestUtils.setField(evaluator, "contextClaimsProvider", contextClaimsProvider);
+        TestEvaluatorWrapper eval = new TestEvaluatorWrapper(evaluator);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            //when
+            boolean mobile = eval.with(newHashSet("cx.isMobile"), null);
+            boolean android = eval.with(newHashSet("cx.isAndroid"), null);
+            boolean notApple = eval.with(null, newHashSet("cx.isApple"));
+
+            //then
+            assertTrue("isMobile should include IPhone", mobile);
+            assertFalse("isAndroid shouldn't include IPhone", android);
+            assertFalse("exclude isApple shouldn't include IPhone", notApple);
+            verify(contextClaimsProvider, times(1)).getContextClaims(any());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
     private static class TestEntity extends AbstractEntityModel {
 
     }
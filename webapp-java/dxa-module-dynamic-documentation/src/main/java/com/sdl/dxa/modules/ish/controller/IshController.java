@@ -1,17 +1,17 @@
 package com.sdl.dxa.modules.ish.controller;
 
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
-import com.google.common.collect.Lists;
 import com.sdl.dxa.common.ClaimValues;
 import com.sdl.dxa.modules.ish.exception.IshServiceException;
 import com.sdl.dxa.modules.ish.model.Publication;
 import com.sdl.dxa.modules.ish.services.ConditionService;
+import com.sdl.dxa.modules.ish.services.MergedConditionsService;
+import com.sdl.dxa.modules.ish.services.MergedConditionsService.MergedConditions;
 import com.sdl.dxa.modules.ish.services.PageService;
 import com.sdl.dxa.modules.ish.services.PublicationService;
 import com.sdl.dxa.modules.ish.services.TocService;
 import com.sdl.dxa.modules.ish.services.TridionDocsContentService;
+import com.sdl.dxa.modules.ish.utils.BinaryResponseWriter;
 import com.sdl.dxa.modules.ish.utils.ConditionUtil;
 import com.sdl.dxa.performance.Performance;
 import com.sdl.webapp.common.api.WebRequestContext;
@@ -25,18 +25,15 @@ import com.sdl.webapp.common.api.model.entity.SitemapItem;
 import com.sdl.webapp.common.controller.exception.BadRequestException;
 import com.sdl.webapp.common.controller.exception.DocsExceptionHandler;
 import com.sdl.webapp.common.controller.exception.NotFoundException;
-import com.sdl.webapp.common.exceptions.DxaItemNotFoundException;
 import com.sdl.webapp.common.impl.model.ErrorMessage;
 import com.sdl.webapp.common.util.MimeUtils;
 import com.tridion.meta.Item;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -48,12 +45,7 @@ import org.springframework.web.servlet.ModelAndView;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -97,12 +89,11 @@ public class IshController {
     @Autowired
     private Dxa22ContentProvider contentProvider;
 
-    //Don't use an @Autowired objectmapper here, we need to change some configuration.
-    private ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private MergedConditionsService mergedConditionsService;
 
-    public IshController() {
-        objectMapper.configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true);
-    }
+    @Value("${dxa.modules.ish.binary.buffersize:65536}")
+    private int binaryBufferSize = 65536;
 
     /**
      * Get page model using the json format.
@@ -137,8 +128,9 @@ public class IshController {
     }
 
     /**
-     * Get binary data.
+     * Get binary data, supports conditional and single range requests.
      *
+     * @param request  HTTP Request object
      * @param response HTTP Response object
      * @param publicationId Publication id
      * @param binaryId      Binary id
@@ -147,7 +139,8 @@ public class IshController {
      */
     @RequestMapping(method = GET, value = "/binary/{publicationId}/{binaryId}/**", produces = MediaType.ALL_VALUE)
     @ResponseBody
-    public void getBinaryResource(HttpServletResponse response,
+    public void getBinaryResource(HttpServletRequest request,
+                                  HttpServletResponse response,
                                   @PathVariable String publicationId,
                                   @PathVariable String binaryId) throws ContentProviderException, BadRequestException, NotFoundException, IOException {
         int publicationIdInt = -1;
@@ -163,17 +156,12 @@ public class IshController {
             throw new BadRequestException("Invalid request parameter, no required binaryId: " + binaryId, ex);
         }
         publicationService.checkPublicationOnline(publicationIdInt, webRequestContext.getLocalization());
-        try (Performance perf = new Performance(1_000L, "getBinaryResource");
-             ServletServerHttpResponse res = new ServletServerHttpResponse(response)) {
+        try (Performance perf = new Performance(1_000L, "getBinaryResource")) {
             Localization localization = webRequestContext.getLocalization();
             StaticContentItem content = contentProvider.getStaticContent(binaryIdInt, localization);
             String mimeType = MimeUtils.getMimeType("file" + content.getContentType());
-            response.setHeader("content-type", mimeType);
-
-            try (final InputStream in = content.getContent();
-                 final OutputStream out = res.getBody()) {
-                IOUtils.copy(in, out);
-            }
+            String eTag = BinaryResponseWriter.getETag(publicationIdInt, binaryIdInt, content);
+            BinaryResponseWriter.write(request, response, content, mimeType, eTag, binaryBufferSize);
         }
     }
 
@@ -197,10 +185,10 @@ public class IshController {
                                               @RequestParam(value = "conditions", defaultValue = "") String conditions,
                                               HttpServletRequest request) throws ContentProviderException, NotFoundException, IOException {
         try(Performance perf = new Performance(1_000L, "getRootToc")) {
-            setConditions(publicationId, conditions);
+            String conditionsKey = setConditions(publicationId, conditions);
             publicationService.checkPublicationOnline(publicationId, webRequestContext.getLocalization());
             ignoreByName(request, "XpmMetadata", "XpmPropertyMetadata");
-            return tocService.getToc(publicationId, null, false, 1, conditions, webRequestContext);
+            return tocService.getToc(publicationId, null, false, 1, conditionsKey, webRequestContext);
         }
     }
 
@@ -212,10 +200,10 @@ public class IshController {
                                           @RequestParam(value = "conditions", defaultValue = "") String conditions,
                                           HttpServletRequest request) throws ContentProviderException, IOException {
         try(Performance perf = new Performance(1_000L, "getToc")) {
-            setConditions(publicationId, conditions);
+            String conditionsKey = setConditions(publicationId, conditions);
             publicationService.checkPublicationOnline(publicationId, webRequestContext.getLocalization());
             ignoreByName(request, "XpmMetadata", "XpmPropertyMetadata");
-            return tocService.getToc(publicationId, sitemapItemId, includeAncestors, 1, conditions, webRequestContext);
+            return tocService.getToc(publicationId, sitemapItemId, includeAncestors, 1, conditionsKey, webRequestContext);
         }
     }
 
@@ -242,7 +230,6 @@ public class IshController {
             value = "/api/pageIdByReference/{publicationId}/{ishFieldValue}",
             produces = {APPLICATION_JSON_VALUE})
     @ResponseBody
-    @Cacheable(value = "ish", key = "{ #publicationId, #ishFieldValue }")
     public Item getTopicIdInTargetPublication(@PathVariable("publicationId") Integer publicationId,
                                               @PathVariable("ishFieldValue") String ishFieldValue)
             throws ContentProviderException, NotFoundException, BadRequestException {
@@ -255,6 +242,30 @@ public class IshController {
         }
     }
 
+    /**
+     * Get page Ids of several topics in one request, e.g. for all cross-publication links of a topic.
+     *
+     * @param publicationId  target Publication id where we have to fetch Page Ids (aka topic ids)
+     * @param ishFieldValues Values of meta field 'ishlogicalref.object.id'
+     * @return page of a topic in target publication for every reference
+     * @throws ContentProviderException if topics cannot be fetched
+     */
+    @RequestMapping(method = {GET, POST},
+            value = "/api/pageIdByReference/{publicationId}",
+            produces = {APPLICATION_JSON_VALUE})
+    @ResponseBody
+    public Map<String, Item> getTopicIdsInTargetPublication(@PathVariable("publicationId") Integer publicationId,
+                                                            @RequestParam("ishFieldValues") List<String> ishFieldValues)
+            throws ContentProviderException, NotFoundException, BadRequestException {
+        try(Performance perf = new Performance(1_000L, "getTopicIdsInTargetPublication")) {
+            publicationService.checkPublicationOnline(publicationId, webRequestContext.getLocalization());
+            if (ishFieldValues.stream().anyMatch(Strings::isNullOrEmpty)) {
+                throw new BadRequestException("Unable to use empty 'ishlogicalref.object.id' value as a search criteria", null);
+            }
+            return tridionDocsContentService.getPageIdsByIshLogicalReferences(publicationId, ishFieldValues);
+        }
+    }
+
     @ExceptionHandler(value = Exception.class)
     @ResponseBody
     ResponseEntity<ErrorMessage> handleException(Exception ex) {
@@ -262,53 +273,16 @@ public class IshController {
         return new ResponseEntity(message, message.getHttpStatus());
     }
 
-    private void setConditions(Integer publicationId, String conditions) throws IOException, DxaItemNotFoundException {
-        Map<String, List> mergedConditions = null;
-        if (!conditions.isEmpty()) {
-            mergedConditions = getMergedConditions(conditions, publicationId);
-        }
-        ConditionUtil.addConditions(ClaimValues.ISH_CONDITIONS_MERGED, mergedConditions);
-    }
-
-    private Map<String, List> getMergedConditions(String conditions, int publicationId) throws IOException {
-        if (conditions == null) {
-            return null;
-        }
-        Map conditionsMap = objectMapper.readValue(conditions, Map.class);
-        Map<Object, Object> userConditions = (Map)conditionsMap.get("userConditions");
-        Map<String, List> result = new HashMap<>();
-
-        if (userConditions == null || userConditions.isEmpty()) {
-            return result;
-        }
-        try {
-            Localization localization = webRequestContext.getLocalization();
-            Map<String, Map> systemConditions = conditionService.getObjectConditions(publicationId, localization);
-            for (Map.Entry<String, Map> entry : systemConditions.entrySet()) {
-                Object[] values = (Object[]) entry.getValue().get("values");
-                if (values == null) {
-                    result.put(entry.getKey(), null);
-                } else {
-                    result.put(entry.getKey(), Arrays.asList(values));
-                }
-            }
-            //Overwrite system conditions with the userconditions:
-            for (Map.Entry entry : userConditions.entrySet()) {
-                String key = String.valueOf(entry.getKey());
-                Object value = entry.getValue();
-                if (value == null) {
-                    result.put(key, null);
-                } else {
-                    if (List.class.isAssignableFrom(value.getClass())) {
-                        result.put(key, Lists.newArrayList((List) value));
-                    } else {
-                        result.put(key, Collections.singletonList(value));
-                    }
-                }
-            }
-        } catch (Exception ex) {
-            log.error("Could not merge conditions " + conditions + " for pub " + publicationId, ex);
-        }
-        return result;
+    /**
+     * Puts the merged conditions into the claim store of the request.
+     *
+     * @return canonical key of the conditions
+     */
+    private String setConditions(Integer publicationId, String conditions) throws IOException {
+        MergedConditions mergedConditions = mergedConditionsService.getMergedConditions(publicationId, conditions,
+                webRequestContext.getLocalization());
+        ConditionUtil.addConditions(ClaimValues.ISH_CONDITIONS_MERGED, mergedConditions.getConditions());
+        ConditionUtil.setConditionsKey(mergedConditions.getKey());
+        return mergedConditions.getKey();
     }
 }
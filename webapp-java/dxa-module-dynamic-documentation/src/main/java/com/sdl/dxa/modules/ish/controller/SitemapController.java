@@ -1,7 +1,8 @@
 package com.sdl.dxa.modules.ish.controller;
 
 import com.sdl.dxa.modules.ish.exception.IshServiceException;
-import com.sdl.dxa.modules.ish.services.SitemapService;
+import com.sdl.dxa.modules.ish.services.SitemapArtifactStore;
+import com.sdl.dxa.modules.ish.services.SitemapArtifactStore.SitemapArtifact;
 import com.sdl.webapp.common.api.WebRequestContext;
 import com.sdl.webapp.common.controller.exception.DocsExceptionHandler;
 import com.sdl.webapp.common.impl.model.ErrorMessage;
@@ -9,15 +10,19 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import static org.springframework.http.MediaType.APPLICATION_XML_VALUE;
 
@@ -31,20 +36,58 @@ public class SitemapController {
     private DocsExceptionHandler exceptionHandler;
 
     @Autowired
-    private SitemapService sitemapService;
+    private WebRequestContext webRequestContext;
 
     @Autowired
-    private WebRequestContext webRequestContext;
+    private SitemapArtifactStore sitemapArtifactStore;
 
+    /**
+     * Serves the last generated sitemap, gzipped if the client accepts it, and answers conditional requests
+     * with {@code 304 Not Modified}. The sitemap itself is generated in the background by {@link SitemapArtifactStore}.
+     */
     @RequestMapping(value = "/api/sitemap.xml", produces = APPLICATION_XML_VALUE)
-    @ResponseBody
-    public String create(HttpServletRequest request, HttpServletResponse response) {
-        response.setContentType(MediaType.APPLICATION_XML_VALUE);
-
+    public void create(HttpServletRequest request, HttpServletResponse response) throws IOException {
         String contextPath = StringUtils.substringBefore(request.getRequestURL().toString(),
                 request.getServletPath()) + "/";
 
-        return sitemapService.createSitemap(contextPath, webRequestContext.getLocalization());
+        SitemapArtifact sitemap = sitemapArtifactStore.getSitemap(contextPath, webRequestContext.getLocalization());
+        boolean gzipped = acceptsGzip(request);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (new ServletWebRequest(request, response).checkNotModified(sitemap.getETag(gzipped), sitemap.getLastModified())) {
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_XML_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        byte[] body = gzipped ? sitemap.getGzip() : sitemap.getXml();
+        if (gzipped) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        if (!"HEAD".equalsIgnoreCase(request.getMethod())) {
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.equals("q=0") || parameter.matches("q=0\\.0*")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
     }
 
     @ExceptionHandler(value = {Exception.class, IshServiceException.class})
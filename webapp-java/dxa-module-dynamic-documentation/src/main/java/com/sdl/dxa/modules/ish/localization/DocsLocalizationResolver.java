@@ -1,22 +1,22 @@
 package com.sdl.dxa.modules.ish.localization;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.sdl.webapp.common.api.localization.Localization;
 import com.sdl.webapp.common.api.localization.LocalizationResolver;
 import com.sdl.webapp.common.api.localization.LocalizationResolverException;
 import com.sdl.webapp.common.impl.localization.DocsLocalization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-;
 
 /**
  * Implementation of {@code LocalizationResolver} that uses the Api Client to determine the localization for a request.
@@ -25,14 +25,38 @@ import java.util.regex.Pattern;
  */
 @Component
 @Primary
-public class DocsLocalizationResolver implements LocalizationResolver {
+public class DocsLocalizationResolver implements LocalizationResolver, ApplicationEventPublisherAware {
 
     private static final Logger LOG = LoggerFactory.getLogger(DocsLocalizationResolver.class);
 
-    private final Map<String, Localization> localizations = new ConcurrentHashMap<>();
+    /**
+     * Optional path segments which may precede the publication id, in the order they may appear.
+     */
+    private static final String[] PATH_PREFIXES = {
+            "api/", "binary/", "page/", "topic/", "toc/", "pageIdByReference/", "conditions/", "comments/"
+    };
+
+    @Value("${dxa.modules.ish.localization.cachesize:1000}")
+    private long localizationsCacheSize = 1000;
+
+    /**
+     * Localizations by publication id, all URLs of a publication share one entry.
+     */
+    private Cache<String, Localization> localizations;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void init() {
+        localizations = CacheBuilder.newBuilder()
+                .maximumSize(localizationsCacheSize)
+                .build();
+    }
 
-    private static Pattern DocsPattern =
-            Pattern.compile("^/?(api/)?(binary/)?(page/)?(topic/)?(toc/)?(pageIdByReference/)?(conditions/)?(comments/)?(?<pubId>\\d+).*");
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+        this.eventPublisher = applicationEventPublisher;
+    }
 
     /**
      * {@inheritDoc}
@@ -40,23 +64,27 @@ public class DocsLocalizationResolver implements LocalizationResolver {
     @Override
     public Localization getLocalization(String url) throws LocalizationResolverException {
         LOG.trace("getLocalization: {}", url);
-        if (!localizations.containsKey(url)) {
-            try {
-                URI uri = new URI(url);
-                String pubId = getPublicationId(uri.getPath());
-                if (pubId == null) {
-                    //Return dummy for home page
-                    return new DocsLocalization();
-                }
-                DocsLocalization docsLocalization = new DocsLocalization();
-                docsLocalization.setPublicationId(pubId);
-                localizations.put(url, docsLocalization);
-            } catch (URISyntaxException e) {
-                throw new LocalizationResolverException("Syntax error for URL: " + url, e);
-            }
+        final String pubId;
+        try {
+            pubId = getPublicationId(new URI(url).getPath());
+        } catch (URISyntaxException e) {
+            throw new LocalizationResolverException("Syntax error for URL: " + url, e);
+        }
+        if (pubId == null) {
+            //Return dummy for home page
+            return new DocsLocalization();
         }
 
-        return localizations.get(url);
+        Localization localization = localizations.getIfPresent(pubId);
+        if (localization == null) {
+            DocsLocalization docsLocalization = new DocsLocalization();
+            docsLocalization.setPublicationId(pubId);
+            localization = localizations.asMap().putIfAbsent(pubId, docsLocalization);
+            if (localization == null) {
+                localization = docsLocalization;
+            }
+        }
+        return localization;
     }
 
     /**
@@ -68,19 +96,39 @@ public class DocsLocalizationResolver implements LocalizationResolver {
             return false;
         }
         String localizationId = localization.getId();
-        if (localizations.remove(localizationId) != null) {
+        boolean removed = localizations.asMap().remove(localizationId) != null;
+        removed |= localizations.asMap().values().removeIf(cached -> cached == localization
+                || (localizationId != null && localizationId.equals(cached.getId())));
+        if (removed) {
             LOG.debug("Removed cached localization with id: {}", localizationId);
-            return true;
         }
-        return false;
+        if (eventPublisher != null && localizationId != null) {
+            eventPublisher.publishEvent(new PublicationRefreshedEvent(this, localizationId));
+        }
+        return removed;
     }
 
+    /**
+     * Extracts the publication id from a path like {@code /api/toc/123/...}, this is equivalent to
+     * {@code ^/?(api/)?(binary/)?(page/)?(topic/)?(toc/)?(pageIdByReference/)?(conditions/)?(comments/)?(\d+).*}.
+     *
+     * @param url path of the request
+     * @return the publication id, or {@code null} if the path does not start with one
+     */
     protected String getPublicationId(String url) {
-        Matcher matcher = DocsPattern.matcher(url);
-        if (matcher.matches()) {
-            String pubId = matcher.group("pubId");
-            return pubId;
+        if (url == null) {
+            return null;
+        }
+        int start = url.startsWith("/") ? 1 : 0;
+        for (String prefix : PATH_PREFIXES) {
+            if (url.startsWith(prefix, start)) {
+                start += prefix.length();
+            }
+        }
+        int end = start;
+        while (end < url.length() && url.charAt(end) >= '0' && url.charAt(end) <= '9') {
+            end++;
         }
-        return null;
+        return end > start ? url.substring(start, end) : null;
     }
 }
@@ -0,0 +1,21 @@
+package com.sdl.dxa.modules.ish.localization;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the localization of a publication is refreshed, e.g. after it has been republished,
+ * so that data cached per publication can be dropped.
+ */
+public class PublicationRefreshedEvent extends ApplicationEvent {
+
+    private final String publicationId;
+
+    public PublicationRefreshedEvent(Object source, String publicationId) {
+        super(source);
+        this.publicationId = publicationId;
+    }
+
+    public String getPublicationId() {
+        return publicationId;
+    }
+}
@@ -1,17 +1,21 @@
 package com.sdl.dxa.modules.ish.providers;
 
+import com.google.common.collect.Lists;
 import com.sdl.dxa.tridion.pcaclient.ApiClientProvider;
 import com.sdl.web.pca.client.ApiClient;
 import com.sdl.web.pca.client.contentmodel.Pagination;
 import com.sdl.web.pca.client.contentmodel.enums.ContentIncludeMode;
 import com.sdl.web.pca.client.contentmodel.enums.ContentNamespace;
 import com.sdl.web.pca.client.contentmodel.generated.CriteriaScope;
+import com.sdl.web.pca.client.contentmodel.generated.CustomMetaEdge;
 import com.sdl.web.pca.client.contentmodel.generated.CustomMetaValueType;
 import com.sdl.web.pca.client.contentmodel.generated.FilterItemType;
 import com.sdl.web.pca.client.contentmodel.generated.InputCustomMetaCriteria;
 import com.sdl.web.pca.client.contentmodel.generated.InputItemFilter;
 import com.sdl.web.pca.client.contentmodel.generated.InputSortParam;
 import com.sdl.web.pca.client.contentmodel.generated.ItemConnection;
+import com.sdl.web.pca.client.contentmodel.generated.ItemEdge;
+import com.sdl.web.pca.client.contentmodel.generated.Page;
 import com.sdl.web.pca.client.contentmodel.generated.SortFieldType;
 import com.sdl.web.pca.client.contentmodel.generated.SortOrderType;
 import com.sdl.webapp.common.api.content.ContentProviderException;
@@ -19,12 +23,19 @@ import com.tridion.meta.Category;
 import com.tridion.meta.Item;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -38,32 +49,21 @@ public class GraphQLIshReferenceProvider implements IshReferenceProvider {
     @Autowired
     private ApiClientProvider pcaClientProvider;
 
+    @Value("${dxa.modules.ish.reference.batchsize:50}")
+    private int batchSize = 50;
+
     public Item getPageIdByIshLogicalReference(Integer publicationId, String ishLogicalRefValue)
             throws ContentProviderException {
         Item item = new IshReferenceItem();
         ApiClient client = pcaClientProvider.getClient();
-        InputItemFilter filter = new InputItemFilter();
-
-        filter.setNamespaceIds(Arrays.asList(ContentNamespace.Docs.getNameSpaceValue()));
-        filter.setPublicationIds(Arrays.asList(publicationId));
-        List<FilterItemType> itemTypes = Arrays.asList(FilterItemType.PAGE);
-        filter.setItemTypes(itemTypes);
-        InputCustomMetaCriteria customMeta = new InputCustomMetaCriteria();
-        customMeta.setKey(REF_FIELD_NAME);
-        customMeta.setValue(ishLogicalRefValue);
-        customMeta.setValueType(CustomMetaValueType.STRING);
-        customMeta.setScope(CriteriaScope.ItemInPublication);
-        filter.setCustomMeta(customMeta);
-
-        InputSortParam inputSortParam = new InputSortParam();
-        inputSortParam.setOrder(SortOrderType.Ascending);
-        inputSortParam.setSortBy(SortFieldType.CREATION_DATE);
+        InputItemFilter filter = createFilter(publicationId);
+        filter.setCustomMeta(createCustomMeta(ishLogicalRefValue));
 
         Pagination pagination = new Pagination();
         pagination.setFirst(1);
 
         ItemConnection items = client.executeItemQuery(filter,
-                inputSortParam,
+                createSort(),
                 pagination, null,
                 ContentIncludeMode.EXCLUDE, false, null);
 
@@ -76,6 +76,100 @@ public class GraphQLIshReferenceProvider implements IshReferenceProvider {
         return item;
     }
 
+    /**
+     * Resolves the references with one query per {@code dxa.modules.ish.reference.batchsize} references.
+     * The pages found are matched to their reference by their {@link #REF_FIELD_NAME} custom meta, like
+     * {@link #getPageIdByIshLogicalReference(Integer, String)} the oldest page of a reference wins.
+     */
+    @Override
+    public Map<String, Item> getPageIdsByIshLogicalReferences(Integer publicationId, Collection<String> ishLogicalRefValues)
+            throws ContentProviderException {
+        List<String> references = new ArrayList<>(new LinkedHashSet<>(ishLogicalRefValues));
+        Map<String, Item> result = new LinkedHashMap<>();
+        if (references.size() == 1) {
+            result.put(references.get(0), getPageIdByIshLogicalReference(publicationId, references.get(0)));
+            return result;
+        }
+
+        ApiClient client = pcaClientProvider.getClient();
+        for (List<String> batch : Lists.partition(references, Math.max(1, batchSize))) {
+            InputItemFilter filter = createFilter(publicationId);
+            List<InputItemFilter> referenceFilters = new ArrayList<>(batch.size());
+            for (String reference : batch) {
+                InputItemFilter referenceFilter = new InputItemFilter();
+                referenceFilter.setCustomMeta(createCustomMeta(reference));
+                referenceFilters.add(referenceFilter);
+            }
+            filter.setOr(referenceFilters);
+
+            Pagination pagination = new Pagination();
+            pagination.setFirst(batch.size());
+
+            ItemConnection items = client.executeItemQuery(filter,
+                    createSort(),
+                    pagination, "requiredMeta:" + REF_FIELD_NAME,
+                    ContentIncludeMode.EXCLUDE, false, null);
+
+            List<ItemEdge> edges = items == null || items.getEdges() == null ? Collections.emptyList() : items.getEdges();
+            for (ItemEdge edge : edges) {
+                String reference = getReference(edge.getNode());
+                if (reference != null && batch.contains(reference) && !result.containsKey(reference)) {
+                    com.sdl.web.pca.client.contentmodel.generated.Item node = edge.getNode();
+                    result.put(reference, new IshReferenceItem(node.getItemId(), node.getTitle(), node.getPublicationId()));
+                }
+            }
+
+            // a full page may have left out references which have several pages, those are looked up one by one
+            boolean truncated = edges.size() >= batch.size();
+            for (String reference : batch) {
+                if (!result.containsKey(reference)) {
+                    result.put(reference, truncated
+                            ? getPageIdByIshLogicalReference(publicationId, reference)
+                            : new IshReferenceItem());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String getReference(com.sdl.web.pca.client.contentmodel.generated.Item node) {
+        if (!(node instanceof Page) || ((Page) node).getCustomMetas() == null
+                || ((Page) node).getCustomMetas().getEdges() == null) {
+            return null;
+        }
+        for (CustomMetaEdge edge : ((Page) node).getCustomMetas().getEdges()) {
+            if (edge.getNode() != null && REF_FIELD_NAME.equals(edge.getNode().getKey())) {
+                return edge.getNode().getValue();
+            }
+        }
+        return null;
+    }
+
+    private static InputItemFilter createFilter(Integer publicationId) {
+        InputItemFilter filter = new InputItemFilter();
+        filter.setNamespaceIds(Arrays.asList(ContentNamespace.Docs.getNameSpaceValue()));
+        filter.setPublicationIds(Arrays.asList(publicationId));
+        List<FilterItemType> itemTypes = Arrays.asList(FilterItemType.PAGE);
+        filter.setItemTypes(itemTypes);
+        return filter;
+    }
+
+    private static InputCustomMetaCriteria createCustomMeta(String ishLogicalRefValue) {
+        InputCustomMetaCriteria customMeta = new InputCustomMetaCriteria();
+        customMeta.setKey(REF_FIELD_NAME);
+        customMeta.setValue(ishLogicalRefValue);
+        customMeta.setValueType(CustomMetaValueType.STRING);
+        customMeta.setScope(CriteriaScope.ItemInPublication);
+        return customMeta;
+    }
+
+    private static InputSortParam createSort() {
+        InputSortParam inputSortParam = new InputSortParam();
+        inputSortParam.setOrder(SortOrderType.Ascending);
+        inputSortParam.setSortBy(SortFieldType.CREATION_DATE);
+        return inputSortParam;
+    }
+
     private class IshReferenceItem implements Item {
         private int namespaceId;
         private int id;
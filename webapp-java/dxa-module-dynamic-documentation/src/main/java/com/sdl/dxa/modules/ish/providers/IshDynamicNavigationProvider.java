@@ -5,12 +5,14 @@ import com.sdl.dxa.api.datamodel.model.SitemapItemModelData;
 import com.sdl.dxa.api.datamodel.model.TaxonomyNodeModelData;
 import com.sdl.dxa.common.dto.DepthCounter;
 import com.sdl.dxa.common.dto.SitemapRequestDto;
+import com.sdl.dxa.modules.ish.utils.UrlUtil;
 import com.sdl.dxa.tridion.navigation.dynamic.NavigationModelProvider;
 import com.sdl.dxa.tridion.navigation.dynamic.OnDemandNavigationModelProvider;
 import com.sdl.webapp.common.api.content.LinkResolver;
 import com.sdl.webapp.common.api.localization.Localization;
 import com.sdl.webapp.common.api.model.entity.SitemapItem;
 import com.sdl.webapp.common.api.model.entity.TaxonomyNode;
+import com.sdl.webapp.common.api.model.sorting.SortableSiteMap;
 import com.sdl.webapp.common.api.navigation.NavigationFilter;
 import com.sdl.webapp.common.api.navigation.TaxonomyUrisHolder;
 import com.sdl.webapp.common.controller.exception.BadRequestException;
@@ -24,9 +26,10 @@ import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import static com.sdl.webapp.common.api.navigation.TaxonomyUrisHolder.parse;
 
@@ -74,9 +77,7 @@ public class IshDynamicNavigationProvider {
             throw new TaxonomyNotFoundException("Keyword '" + requestDto.getSitemapId() + "' in publication '" + requestDto.getLocalizationId() + "' was not found.");
         }
 
-        Collection<SitemapItem> items = subtree.get().stream()
-                .map(this::_convert)
-                .collect(Collectors.toList());
+        Collection<SitemapItem> items = _convertSorted(subtree.get());
 
         if (items.isEmpty()) {
             TaxonomyUrisHolder info = parse(sitemapItemId, localization.getId());
@@ -91,17 +92,35 @@ public class IshDynamicNavigationProvider {
         return items;
     }
 
+    /**
+     * Converts the navigation models of one level, the items of every level are sorted here once, so the
+     * tree doesn't have to be sorted again afterwards.
+     */
+    @NotNull
+    private List<SitemapItem> _convertSorted(@NotNull Collection<SitemapItemModelData> models) {
+        List<SitemapItem> converted = new ArrayList<>(models.size());
+        for (SitemapItemModelData model : models) {
+            converted.add(_convert(model));
+        }
+        if (converted.size() < 2) {
+            return converted;
+        }
+        return new ArrayList<>(SortableSiteMap.sortItem(converted, SortableSiteMap.SORT_BY_TAXONOMY_AND_KEYWORD));
+    }
+
     @NotNull
     private SitemapItem _convert(@NotNull SitemapItemModelData model) {
         SitemapItem item = _instantiateSitemap(model);
         item.setId(model.getId());
         item.setVisible(model.isVisible());
-        if (!Strings.isNullOrEmpty(model.getUrl())) item.setUrl("/" + model.getUrl().replaceAll("^/?(.*)", "$1"));
+        if (!Strings.isNullOrEmpty(model.getUrl())) item.setUrl(UrlUtil.withSingleLeadingSlash(model.getUrl()));
         item.setTitle(model.getTitle());
         item.setOriginalTitle(model.getOriginalTitle());
         item.setPublishedDate(model.getPublishedDate());
         item.setType(model.getType());
-        model.getItems().forEach(modelData -> item.addItem(_convert(modelData)));
+        if (model.getItems() != null && !model.getItems().isEmpty()) {
+            _convertSorted(model.getItems()).forEach(item::addItem);
+        }
         return item;
     }
 
@@ -3,6 +3,10 @@ package com.sdl.dxa.modules.ish.providers;
 import com.sdl.webapp.common.api.content.ContentProviderException;
 import com.tridion.meta.Item;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 
 /**
  * Provider to fetch meta information.
@@ -15,4 +19,25 @@ public interface IshReferenceProvider {
     //private static final String DEFAULT_PUBLISH_DATA = "1900-01-01 00:00:00.000";
 
     Item getPageIdByIshLogicalReference(Integer publicationId, String ishLogicalRefValue) throws ContentProviderException;
+
+    /**
+     * Resolves several logical references of a publication at once.
+     * <p>Providers which can query all references in one go should override this, by default every reference
+     * is resolved on its own.</p>
+     *
+     * @param publicationId       target publication Id where to look for ishlogicalref
+     * @param ishLogicalRefValues values of meta field 'ishlogicalref.object.id'
+     * @return page of every reference, an empty item if there is no page for it
+     * @throws ContentProviderException in case if data retrieving fails
+     */
+    default Map<String, Item> getPageIdsByIshLogicalReferences(Integer publicationId, Collection<String> ishLogicalRefValues)
+            throws ContentProviderException {
+        Map<String, Item> result = new LinkedHashMap<>();
+        for (String ishLogicalRefValue : ishLogicalRefValues) {
+            if (!result.containsKey(ishLogicalRefValue)) {
+                result.put(ishLogicalRefValue, getPageIdByIshLogicalReference(publicationId, ishLogicalRefValue));
+            }
+        }
+        return result;
+    }
 }
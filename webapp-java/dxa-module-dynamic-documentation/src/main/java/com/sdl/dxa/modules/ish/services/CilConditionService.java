@@ -1,9 +1,9 @@
 package com.sdl.dxa.modules.ish.services;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.sdl.dxa.modules.ish.services.ConditionService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.sdl.dxa.modules.ish.localization.PublicationRefreshedEvent;
 import com.sdl.web.api.meta.WebPublicationMetaFactory;
 import com.sdl.webapp.common.api.localization.Localization;
 import com.sdl.webapp.common.controller.exception.InternalServerErrorException;
@@ -13,11 +13,16 @@ import com.tridion.broker.StorageException;
 import com.tridion.meta.PublicationMeta;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service which provides conditions for specific publication.
@@ -29,48 +34,78 @@ import java.util.Map;
 public class CilConditionService implements ConditionService {
     private static final String CONDITION_USED = "conditionsused.generated.value";
     private static final String CONDITION_METADATA = "conditionmetadata.generated.value";
-    private static final String CONDITION_VALUES = "values";
-    private final JsonParser parser = new JsonParser();
 
     @Autowired
     private WebPublicationMetaFactory webPublicationMetaFactory;
 
-    public String getConditions(Integer publicationId, Localization localization) {
-        JsonObject conditionUsed = getMetadataJson(publicationId, CONDITION_USED);
-        JsonObject conditionMetadata = getMetadataJson(publicationId, CONDITION_METADATA);
+    @Value("${dxa.modules.ish.conditions.metadata.cache.minutes:60}")
+    private long conditionsCacheMinutes = 60;
+
+    @Value("${dxa.modules.ish.conditions.metadata.cachesize:1000}")
+    private long conditionsCacheSize = 1000;
+
+    private Cache<Integer, PublicationConditions> publicationConditions;
+
+    @PostConstruct
+    public void init() {
+        publicationConditions = CacheBuilder.newBuilder()
+                .maximumSize(conditionsCacheSize)
+                .expireAfterWrite(conditionsCacheMinutes, TimeUnit.MINUTES)
+                .build();
+    }
 
-        for (Map.Entry<String, JsonElement> entry : conditionUsed.entrySet()) {
-            JsonElement conditionValues = entry.getValue();
-            JsonObject dataType = conditionMetadata.get(entry.getKey()).getAsJsonObject();
-            JsonObject newValue = new JsonObject();
-            newValue.add(CONDITION_VALUES, conditionValues);
-            for (Map.Entry<String, JsonElement> dataTypeEntry : dataType.entrySet()) {
-                newValue.add(dataTypeEntry.getKey(), dataTypeEntry.getValue());
+    @EventListener
+    public void onPublicationRefreshed(PublicationRefreshedEvent event) {
+        if (publicationConditions != null && event.getPublicationId() != null) {
+            try {
+                publicationConditions.invalidate(Integer.valueOf(event.getPublicationId()));
+            } catch (NumberFormatException e) {
+                log.debug("Not a publication id: {}", event.getPublicationId());
             }
-            conditionUsed.add(entry.getKey(), newValue);
         }
-        return conditionUsed.toString();
+    }
+
+    public String getConditions(Integer publicationId, Localization localization) {
+        return getPublicationConditions(publicationId).getJson();
     }
 
     @Override
     public Map<String, Map> getObjectConditions(int publicationId, Localization localization) throws DxaItemNotFoundException, IOException {
-        return null;
+        return getPublicationConditions(publicationId).getConditions();
     }
 
-    private JsonObject getMetadataJson(Integer publicationId, String metadataName) {
+    private PublicationConditions getPublicationConditions(Integer publicationId) {
+        if (publicationConditions == null) {
+            return loadPublicationConditions(publicationId);
+        }
+        try {
+            return publicationConditions.get(publicationId, () -> loadPublicationConditions(publicationId));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new InternalServerErrorException("Unable to retrieve conditions for publication " + publicationId, e);
+        }
+    }
+
+    private PublicationConditions loadPublicationConditions(Integer publicationId) {
         try {
             PublicationMeta publicationMeta = webPublicationMetaFactory.getMeta(publicationId);
             if (publicationMeta == null || publicationMeta.getCustomMeta() == null) {
-                throw new NotFoundException("Metadata '" + metadataName + "' is not found for publication "
+                throw new NotFoundException("Metadata '" + CONDITION_USED + "' is not found for publication "
                         + publicationId);
             }
-            Object metadata = publicationMeta.getCustomMeta().getFirstValue(metadataName);
-            String metadataString = metadata != null ? String.valueOf(metadata) : "{}";
-            return (JsonObject) parser.parse(metadataString);
-
+            return PublicationConditions.parse(getMetadata(publicationMeta, CONDITION_USED),
+                    getMetadata(publicationMeta, CONDITION_METADATA));
         } catch (StorageException ex) {
-            throw new InternalServerErrorException("Unable to retrieve metadata '" + metadataName + "' for publication "
-                    + publicationId, ex);
+            throw new InternalServerErrorException("Unable to retrieve metadata for publication " + publicationId, ex);
+        } catch (IOException ex) {
+            throw new InternalServerErrorException("Unable to parse conditions metadata for publication " + publicationId, ex);
         }
     }
+
+    private static String getMetadata(PublicationMeta publicationMeta, String metadataName) {
+        Object metadata = publicationMeta.getCustomMeta().getFirstValue(metadataName);
+        return metadata != null ? String.valueOf(metadata) : "{}";
+    }
 }
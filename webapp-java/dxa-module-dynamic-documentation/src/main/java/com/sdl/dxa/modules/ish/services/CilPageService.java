@@ -30,7 +30,7 @@ public class CilPageService implements PageService {
 
     @Override
     @Cacheable(value = "ish",
-            key = "{ #localization.id, #pageId }",
+            key = "{ #localization.id, #pageId, T(com.sdl.dxa.modules.ish.utils.ConditionUtil).getConditionsKey() }",
             condition = "#localization != null && #localization.id != null",
             sync = true)
     public ViewModel getPage(int pageId, Localization localization) throws ContentProviderException {
@@ -1,7 +1,10 @@
 package com.sdl.dxa.modules.ish.services;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.sdl.dxa.modules.ish.exception.IshServiceException;
+import com.sdl.dxa.modules.ish.localization.PublicationRefreshedEvent;
 import com.sdl.dxa.tridion.pcaclient.ApiClientProvider;
 import com.sdl.dxa.tridion.pcaclient.GraphQLUtils;
 import com.sdl.web.pca.client.ApiClient;
@@ -10,36 +13,61 @@ import com.sdl.web.pca.client.contentmodel.generated.CustomMetaEdge;
 import com.sdl.web.pca.client.contentmodel.generated.Publication;
 import com.sdl.webapp.common.api.localization.Localization;
 import com.sdl.webapp.common.exceptions.DxaItemNotFoundException;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Component
 @Profile("!cil.providers.active")
 public class GraphQLConditionService implements ConditionService {
     private static final String ConditionUsed = "conditionsused.generated.value";
     private static final String ConditionMetadata = "conditionmetadata.generated.value";
 
-    //Note: Don't put the DXA Objectmapper in here (don't use @Autowired) it is configured differently then needed here.
-    private ObjectMapper objectMapper = new ObjectMapper();
-
     @Autowired
     private ApiClientProvider pcaClientProvider;
 
+    @Value("${dxa.modules.ish.conditions.metadata.cache.minutes:60}")
+    private long conditionsCacheMinutes = 60;
+
+    @Value("${dxa.modules.ish.conditions.metadata.cachesize:1000}")
+    private long conditionsCacheSize = 1000;
+
+    /**
+     * Conditions by publication id, dropped when the publication is refreshed.
+     */
+    private Cache<Integer, PublicationConditions> publicationConditions;
+
+    @PostConstruct
+    public void init() {
+        publicationConditions = CacheBuilder.newBuilder()
+                .maximumSize(conditionsCacheSize)
+                .expireAfterWrite(conditionsCacheMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    @EventListener
+    public void onPublicationRefreshed(PublicationRefreshedEvent event) {
+        Integer publicationId = toPublicationId(event.getPublicationId());
+        if (publicationConditions != null && publicationId != null) {
+            publicationConditions.invalidate(publicationId);
+        }
+    }
+
     @Override
-    @Cacheable(value = "ish",
-            key = "{ #publicationId, #localization.id }",
-            condition = "#localization != null && #localization.id != null",
-            sync = true)
     public String getConditions(Integer publicationId, Localization localization) {
         try {
-            Map<String, Map> objectConditions = getObjectConditions(publicationId, localization);
-            return objectMapper.writeValueAsString(objectConditions);
+            return getPublicationConditions(publicationId, localization).getJson();
         } catch (Exception e) {
             throw new IshServiceException("Error processing conditions for publication " + publicationId, e);
         }
@@ -47,36 +75,64 @@ public class GraphQLConditionService implements ConditionService {
 
     @Override
     public Map<String, Map> getObjectConditions(int publicationId, Localization localization) throws DxaItemNotFoundException, IOException {
-        List<String> metadatas = getMetadata(publicationId, localization, ConditionUsed, ConditionMetadata);
-        Map<String, List> d1 = objectMapper.readValue(metadatas.get(0), Map.class);
-        Map<String, Map> d2 = objectMapper.readValue(metadatas.get(1), Map.class);
-        for (Map.Entry<String, List> v : d1.entrySet()) {
-            Map map = d2.get(v.getKey());
-            map.put("values", v.getValue().toArray());
+        return getPublicationConditions(publicationId, localization).getConditions();
+    }
+
+    private PublicationConditions getPublicationConditions(int publicationId, Localization localization) throws DxaItemNotFoundException, IOException {
+        if (publicationConditions == null) {
+            return loadPublicationConditions(publicationId, localization);
+        }
+        try {
+            return publicationConditions.get(publicationId, () -> loadPublicationConditions(publicationId, localization));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DxaItemNotFoundException) {
+                throw (DxaItemNotFoundException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Unable to load conditions of publication " + publicationId, cause);
         }
-        return d2;
     }
 
-    private List<String> getMetadata(int publicationId, Localization localization, String... metadataNames) throws DxaItemNotFoundException {
+    private PublicationConditions loadPublicationConditions(int publicationId, Localization localization) throws DxaItemNotFoundException, IOException {
         ApiClient client = pcaClientProvider.getClient();
         ContentNamespace namespace = GraphQLUtils.convertUriToGraphQLContentNamespace(localization.getCmUriScheme());
-        List<String> result = new java.util.ArrayList<>();
-        for (String metadataName : metadataNames) {
-            Publication pub = client.getPublication(namespace, publicationId, "requiredMeta:" + metadataName, null);
-            if (pub == null || pub.getCustomMetas() == null) {
-                throw new DxaItemNotFoundException("Metadata '" + metadataName + "' is not found for publication " + publicationId);
-            }
-            List<CustomMetaEdge> edges = pub.getCustomMetas().getEdges();
+        Publication pub = client.getPublication(namespace, publicationId,
+                "requiredMeta:" + ConditionUsed + "," + ConditionMetadata, null);
+        if (pub == null || pub.getCustomMetas() == null) {
+            throw new DxaItemNotFoundException("Metadata '" + ConditionUsed + "' is not found for publication " + publicationId);
+        }
 
-            if (edges == null || edges.isEmpty()) {
-                result.add("{}");
-                continue;
+        String conditionsUsed = null;
+        String conditionMetadata = null;
+        List<CustomMetaEdge> edges = pub.getCustomMetas().getEdges();
+        if (edges != null) {
+            for (CustomMetaEdge edge : edges) {
+                String key = edge.getNode().getKey();
+                Object value = edge.getNode().getValue();
+                if (conditionsUsed == null && ConditionUsed.equals(key)) {
+                    conditionsUsed = (String) value;
+                } else if (conditionMetadata == null && ConditionMetadata.equals(key)) {
+                    conditionMetadata = (String) value;
+                }
             }
-            Object metadata = edges.get(0).getNode().getValue();
-            String metadataString = metadata != null ? (String) metadata : "{}";
-            result.add(metadataString);
         }
-        return result;
+        return PublicationConditions.parse(
+                conditionsUsed != null ? conditionsUsed : "{}",
+                conditionMetadata != null ? conditionMetadata : "{}");
     }
 
+    private static Integer toPublicationId(String publicationId) {
+        try {
+            return publicationId == null ? null : Integer.valueOf(publicationId);
+        } catch (NumberFormatException e) {
+            log.debug("Not a publication id: {}", publicationId);
+            return null;
+        }
+    }
 }
@@ -1,9 +1,15 @@
 package com.sdl.dxa.modules.ish.services;
 
-import com.google.common.primitives.Ints;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.sdl.dxa.modules.ish.localization.PublicationRefreshedEvent;
 import com.sdl.dxa.modules.ish.model.Topic;
+import com.sdl.dxa.modules.ish.utils.ConditionUtil;
+import com.sdl.dxa.modules.ish.utils.TopicBodyRewriter;
 import com.sdl.dxa.tridion.pcaclient.ApiClientProvider;
-import com.sdl.web.pca.client.ApiClient;
 import com.sdl.web.pca.client.contentmodel.enums.ContentIncludeMode;
 import com.sdl.web.pca.client.contentmodel.enums.ContentNamespace;
 import com.sdl.web.pca.client.contentmodel.generated.CustomMetaEdge;
@@ -18,17 +24,25 @@ import com.sdl.webapp.common.api.model.ViewModel;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.net.URI;
-import java.net.URISyntaxException;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -41,7 +55,6 @@ public class GraphQLPageService implements PageService {
     private static final String TOC_NAV_ENTRIES_META = "tocnaventries.generated.value";
     private static final String PAGE_CONDITIONS_USED_META = "conditionsused.generated.value";
     private static final String PAGE_LOGICAL_REF_OBJECT_ID = "ishlogicalref.object.id";
-    private static final Pattern MatchAnchors = Pattern.compile("(<a\\s+(?:[^>]*?\\s+)?href\\s*=\\s*)([\"'])(.*?)\\2", Pattern.DOTALL | Pattern.MULTILINE);
 
     @Autowired
     private ApiClientProvider clientProvider;
@@ -49,11 +62,123 @@ public class GraphQLPageService implements PageService {
     @Autowired
     private Dxa22ContentProvider contentProvider;
 
+    @Value("${dxa.modules.ish.page.meta.parallelism:8}")
+    private int pageMetaParallelism = 8;
+
+    @Value("${dxa.modules.ish.page.meta.cache.seconds:300}")
+    private long pageMetaCacheSeconds = 300;
+
+    @Value("${dxa.modules.ish.page.meta.cache.size:10000}")
+    private long pageMetaCacheSize = 10000;
+
+    /**
+     * Custom metas needed for enrichment by publication and page id, in the order they are returned.
+     */
+    private Cache<String, List<Map.Entry<String, String>>> pageMetaCache;
+
+    private ExecutorService pageMetaExecutor;
+
+    @PostConstruct
+    public void init() {
+        pageMetaCache = CacheBuilder.newBuilder()
+                .maximumSize(pageMetaCacheSize)
+                .expireAfterWrite(pageMetaCacheSeconds, TimeUnit.SECONDS)
+                .build();
+        pageMetaExecutor = Executors.newFixedThreadPool(Math.max(1, pageMetaParallelism),
+                new ThreadFactoryBuilder().setNameFormat("ish-page-meta-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (pageMetaExecutor != null) {
+            pageMetaExecutor.shutdownNow();
+        }
+    }
+
+    @EventListener
+    public void onPublicationRefreshed(PublicationRefreshedEvent event) {
+        if (pageMetaCache != null && event.getPublicationId() != null) {
+            String prefix = event.getPublicationId() + ":";
+            pageMetaCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
     @Override
     public ViewModel getPage(int pageId, Localization localization) throws ContentProviderException {
+        // the custom metas are requested while the page model is loaded, and usually come from the cache
+        CompletableFuture<List<Map.Entry<String, String>>> pageMetas = getPageMetas(pageId, localization);
         PageModel model = contentProvider.getPageModel(pageId, localization);
 
-        return enrichPage(model, localization);
+        return enrichPage(model, awaitPageMetas(pageMetas, pageId, localization));
+    }
+
+    private CompletableFuture<List<Map.Entry<String, String>>> getPageMetas(int pageId, Localization localization) {
+        String key = localization.getId() + ":" + pageId;
+        List<Map.Entry<String, String>> cached = pageMetaCache != null ? pageMetaCache.getIfPresent(key) : null;
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        Executor executor = pageMetaExecutor != null ? pageMetaExecutor : Runnable::run;
+        return CompletableFuture.supplyAsync(ConditionUtil.withCurrentClaimStore(() -> {
+            if (pageMetaCache == null) {
+                return loadPageMetas(pageId, localization);
+            }
+            try {
+                return pageMetaCache.get(key, () -> loadPageMetas(pageId, localization));
+            } catch (ExecutionException | UncheckedExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("Unable to load custom metas of page " + key, e.getCause());
+            }
+        }), executor);
+    }
+
+    private static List<Map.Entry<String, String>> awaitPageMetas(CompletableFuture<List<Map.Entry<String, String>>> request,
+                                                                  int pageId,
+                                                                  Localization localization) throws ContentProviderException {
+        try {
+            return request.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ContentProviderException("Unable to load custom metas of page " + pageId + " in pub " + localization.getId(), cause);
+        }
+    }
+
+    private List<Map.Entry<String, String>> loadPageMetas(int pageId, Localization localization) {
+        String metaFilter = String.format(
+                "requiredMeta:%s,%s,%s",
+                TOC_NAV_ENTRIES_META,
+                PAGE_CONDITIONS_USED_META,
+                PAGE_LOGICAL_REF_OBJECT_ID
+        );
+        Page page = clientProvider.getClient().getPage(
+                ContentNamespace.Docs,
+                Integer.parseInt(localization.getId()),
+                pageId,
+                metaFilter,
+                ContentIncludeMode.EXCLUDE,
+                null);
+        if (page == null) {
+            log.debug("Page not found by pageId " + pageId + " in pub " + localization.getId());
+            return ImmutableList.of();
+        }
+        if (page.getCustomMetas() == null) {
+            log.debug("Custom meta not found by pageId " + pageId);
+            return ImmutableList.of();
+        }
+
+        ImmutableList.Builder<Map.Entry<String, String>> metas = ImmutableList.builder();
+        for (CustomMetaEdge metaEdge : page.getCustomMetas().getEdges()) {
+            String key = metaEdge.getNode().getKey();
+            if (TOC_NAV_ENTRIES_META.equals(key) || PAGE_CONDITIONS_USED_META.equals(key) || PAGE_LOGICAL_REF_OBJECT_ID.equals(key)) {
+                metas.add(new AbstractMap.SimpleImmutableEntry<>(key, metaEdge.getNode().getValue()));
+            }
+        }
+        return metas.build();
     }
 
     private List<Topic> getTopics(PageModel pageModel) {
@@ -76,8 +201,7 @@ public class GraphQLPageService implements PageService {
         return topics;
     }
 
-    private ViewModel enrichPage(ViewModel pageModel, Localization localization) {
-        ApiClient client = clientProvider.getClient();
+    private ViewModel enrichPage(ViewModel pageModel, List<Map.Entry<String, String>> pageMetas) {
         PageModel model = (PageModel) pageModel;
 
         // xform hrefs in topicBody to hash notation of the form:
@@ -94,44 +218,22 @@ public class GraphQLPageService implements PageService {
             ((Topic) topic).setTopicBody(new RichText(processedBody));
         }
 
-        String metaFilter = String.format(
-                "requiredMeta:%s,%s,%s",
-                TOC_NAV_ENTRIES_META,
-                PAGE_CONDITIONS_USED_META,
-                PAGE_LOGICAL_REF_OBJECT_ID
-        );
-        Page page = client.getPage(
-                ContentNamespace.Docs,
-                Integer.parseInt(localization.getId()),
-                Integer.parseInt(model.getId()),
-                metaFilter,
-                ContentIncludeMode.EXCLUDE,
-                null);
-        if (page == null) {
-            log.debug("Page not found by pageId " + model.getId() + " in pub " + localization.getId());
-            return model;
-        }
-        if (page.getCustomMetas() == null) {
-            log.debug("Custom meta not found by pageId " + model.getId());
-            return model;
-        }
-
-        for (CustomMetaEdge metaEdge : page.getCustomMetas().getEdges()) {
-            if (TOC_NAV_ENTRIES_META.equals(metaEdge.getNode().getKey())) {
+        for (Map.Entry<String, String> meta : pageMetas) {
+            if (TOC_NAV_ENTRIES_META.equals(meta.getKey())) {
                 if (model.getMeta().containsKey(TOC_NAV_ENTRIES_META)) {
-                    String v = String.format("%s, %s", model.getMeta().get(TOC_NAV_ENTRIES_META), metaEdge.getNode().getValue());
-                    model.getMeta().put(metaEdge.getNode().getKey(), v);
+                    String v = String.format("%s, %s", model.getMeta().get(TOC_NAV_ENTRIES_META), meta.getValue());
+                    model.getMeta().put(meta.getKey(), v);
                 } else {
-                    model.getMeta().put(TOC_NAV_ENTRIES_META, metaEdge.getNode().getValue());
+                    model.getMeta().put(TOC_NAV_ENTRIES_META, meta.getValue());
                 }
             }
 
-            if (PAGE_CONDITIONS_USED_META.equals(metaEdge.getNode().getKey())) {
-                model.getMeta().put(PAGE_CONDITIONS_USED_META, metaEdge.getNode().getValue());
+            if (PAGE_CONDITIONS_USED_META.equals(meta.getKey())) {
+                model.getMeta().put(PAGE_CONDITIONS_USED_META, meta.getValue());
             }
 
-            if (PAGE_LOGICAL_REF_OBJECT_ID.equals(metaEdge.getNode().getKey()) && !model.getMeta().containsKey(PAGE_LOGICAL_REF_OBJECT_ID)) {
-                model.getMeta().put(PAGE_LOGICAL_REF_OBJECT_ID, metaEdge.getNode().getValue());
+            if (PAGE_LOGICAL_REF_OBJECT_ID.equals(meta.getKey()) && !model.getMeta().containsKey(PAGE_LOGICAL_REF_OBJECT_ID)) {
+                model.getMeta().put(PAGE_LOGICAL_REF_OBJECT_ID, meta.getValue());
             }
         }
 
@@ -140,32 +242,6 @@ public class GraphQLPageService implements PageService {
 
     @NotNull
     String replaceAnchorInLinks(String topicBody) {
-        Matcher matcher = MatchAnchors.matcher(topicBody);
-        StringBuffer sb = new StringBuffer(128);
-        while (matcher.find()) {
-            if (matcher.groupCount() != 3) continue;
-            URI uri;
-            try {
-                uri = new URI(matcher.group(3));
-            } catch (URISyntaxException ex) {
-                if (log.isTraceEnabled()) {
-                    log.trace("URL ("+matcher.group(3) + ") is malformed in " + topicBody);
-                }
-                continue;
-            }
-            String path = uri.getPath();
-            // there can be 2 variants:
-            // first: http://localhost:8882/{pubId}/{pageId}/{topicName}/{something}/{anchor}
-            // second: /{pubId}/{pageId}/{topicName}/{something}/{anchor}
-            List<String> parts = Arrays.asList(path.split("/"))
-                    .stream()
-                    .filter(part -> !part.isEmpty())
-                    .collect(Collectors.toList());
-            if (parts.size() == 5 && Ints.tryParse(parts.get(0)) != null && Ints.tryParse(parts.get(1)) != null) {
-                matcher.appendReplacement(sb, "$1$2" + Matcher.quoteReplacement("#" + parts.get(4)) + "$2");
-            }
-        }
-        matcher.appendTail(sb);
-        return sb.toString();
+        return TopicBodyRewriter.replaceAnchors(topicBody);
     }
 }
@@ -1,5 +1,14 @@
 package com.sdl.dxa.modules.ish.services;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.sdl.dxa.modules.ish.exception.IshServiceException;
 import com.sdl.dxa.tridion.pcaclient.ApiClientProvider;
 import com.sdl.dxa.tridion.pcaclient.GraphQLUtils;
 import com.sdl.web.pca.client.ApiClient;
@@ -10,17 +19,25 @@ import com.sdl.web.pca.client.contentmodel.generated.CustomMetaConnection;
 import com.sdl.web.pca.client.contentmodel.generated.CustomMetaEdge;
 import com.sdl.web.pca.client.contentmodel.generated.Publication;
 import com.sdl.web.pca.client.contentmodel.generated.PublicationConnection;
+import com.sdl.web.pca.client.contentmodel.generated.PublicationEdge;
 import com.sdl.webapp.common.api.localization.Localization;
 import com.sdl.webapp.common.controller.exception.NotFoundException;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Profile("!cil.providers.active")
@@ -45,31 +62,103 @@ public class GraphQLPublicationService implements PublicationService {
     @Autowired
     private ApiClientProvider apiClientProvider;
 
+    @Value("${dxa.modules.ish.publication.status.ttl.seconds:30}")
+    private int statusTtlSeconds = 30;
+
+    @Value("${dxa.modules.ish.publication.status.maxstale.seconds:300}")
+    private int statusMaxStaleSeconds = 300;
+
+    @Value("${dxa.modules.ish.publication.status.cachesize:10000}")
+    private long statusCacheSize = 10000;
+
+    @Value("${dxa.modules.ish.publication.status.retry.attempts:3}")
+    private int statusRetryAttempts = 3;
+
+    @Value("${dxa.modules.ish.publication.status.retry.backoff.millis:200}")
+    private long statusRetryBackoffMillis = 200;
+
+    @Value("${dxa.modules.ish.publication.status.retry.backoff.max.millis:10000}")
+    private long statusRetryBackoffMaxMillis = 10000;
+
+    @Value("${dxa.modules.ish.publication.list.pagesize:100}")
+    private int publicationListPageSize = 100;
+
+    @Value("${dxa.modules.ish.publication.list.ttl.seconds:60}")
+    private int publicationListTtlSeconds = 60;
+
+    @Value("${dxa.modules.ish.publication.list.maxstale.seconds:600}")
+    private int publicationListMaxStaleSeconds = 600;
+
+    private ExecutorService statusRefreshExecutor;
+
+    private ExecutorService publicationListExecutor;
+
+    private LoadingCache<ContentNamespace, List<com.sdl.dxa.modules.ish.model.Publication>> publicationListCache;
+
+    private LoadingCache<PublicationStatusKey, Boolean> onlineStatusCache;
+
+    private Cache<PublicationStatusKey, StatusLookupFailure> statusLookupFailures;
+
+    /**
+     * Returns the online publications. The list is built page by page, {@code dxa.modules.ish.publication.list.pagesize}
+     * publications at a time, and cached per content namespace. After {@code dxa.modules.ish.publication.list.ttl.seconds}
+     * the previous list is still served while a single background lookup builds the next one, only when no list could be
+     * built for {@code dxa.modules.ish.publication.list.maxstale.seconds} callers wait for a new one.
+     *
+     * @param localization current localization
+     * @return online publications
+     */
     @Override
-    @Cacheable(value = "ish", key = "{ #publicationId, #localization.id }", condition = "#localization != null && #localization.id != null")
     public List<com.sdl.dxa.modules.ish.model.Publication> getPublicationList(Localization localization) {
-        ApiClient client = apiClientProvider.getClient();
         ContentNamespace contentNamespace = GraphQLUtils.convertUriToGraphQLContentNamespace(localization.getCmUriScheme());
-        PublicationConnection publications = client.getPublications(contentNamespace,
-                new Pagination(),
-                null,
-                CustomMetaFilter,
-                null);
-        if (publications.getEdges().isEmpty()) {
-            return Collections.emptyList();
+        if (publicationListCache == null) {
+            return loadPublicationList(contentNamespace);
+        }
+        try {
+            return publicationListCache.getUnchecked(contentNamespace);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IshServiceException("Unable to fetch list of publications.", e.getCause());
+        }
+    }
+
+    private List<com.sdl.dxa.modules.ish.model.Publication> loadPublicationList(ContentNamespace contentNamespace) {
+        ApiClient client = apiClientProvider.getClient();
+        List<com.sdl.dxa.modules.ish.model.Publication> result = new ArrayList<>();
+        int total = 0;
+        String after = null;
+        while (true) {
+            Pagination pagination = new Pagination();
+            pagination.setFirst(publicationListPageSize);
+            pagination.setAfter(after);
+            PublicationConnection publications = client.getPublications(contentNamespace,
+                    pagination,
+                    null,
+                    CustomMetaFilter,
+                    null);
+            List<PublicationEdge> edges = publications == null || publications.getEdges() == null
+                    ? Collections.emptyList()
+                    : publications.getEdges();
+            for (PublicationEdge edge : edges) {
+                if (isPublicationOnline(edge.getNode())) {
+                    result.add(buildPublicationFrom(edge.getNode()));
+                }
+            }
+            total += edges.size();
+            if (edges.size() < publicationListPageSize) {
+                break;
+            }
+            after = edges.get(edges.size() - 1).getCursor();
         }
-        List<com.sdl.dxa.modules.ish.model.Publication> result = publications.getEdges()
-                .stream()
-                .filter(publicationEdge -> isPublicationOnline(publicationEdge.getNode()))
-                .map(publicationEdge -> buildPublicationFrom(publicationEdge.getNode()))
-                .collect(Collectors.toList());
         if (result.isEmpty()) {
-            LOG.warn("There are no online publications found (no {}={})",
-                    PublicationOnlineStatusMeta, PublicationOnlineValue);
+            LOG.warn("There are no online publications found (no {}={}) among {} publications",
+                    PublicationOnlineStatusMeta, PublicationOnlineValue, total);
             return Collections.emptyList();
         }
-        LOG.debug("There are {} online publications found", result.size());
-        return result;
+        LOG.debug("There are {} online publications found among {} publications", result.size(), total);
+        return Collections.unmodifiableList(result);
     }
 
     public boolean isPublicationOnline(Publication publication) {
@@ -84,47 +173,148 @@ public class GraphQLPublicationService implements PublicationService {
         return false;
     }
 
-    private void checkPublicationOnlineInternal(int publicationId, Localization localization, int attempt, Exception[] exceptionHolder) {
-        attempt--;
-        if (attempt < 0) {
-            String message = "Unable to find publication or its metadata for publication " + publicationId + " after 3 attempts";
-            if (exceptionHolder[0] != null) throw new NotFoundException(message, exceptionHolder[0]);
-            else throw new NotFoundException(message);
-        }
+    /**
+     * Checks whether the publication is online. Statuses (both online and offline) are cached for
+     * {@code dxa.modules.ish.publication.status.ttl.seconds}, after that a stale status is still served while a single
+     * background lookup refreshes it, which is tried {@code dxa.modules.ish.publication.status.retry.attempts} times.
+     * Concurrent misses for the same publication share one lookup, which is tried once so the request never waits
+     * between attempts. When it failed, further misses for that publication fail without a lookup for an exponentially
+     * growing backoff.
+     *
+     * @param publicationId publication id
+     * @param localization  current localization
+     * @throws NotFoundException   if the publication is offline
+     * @throws IshServiceException if the status of the publication cannot be determined
+     */
+    @Override
+    public void checkPublicationOnline(int publicationId, Localization localization) throws NotFoundException {
         ContentNamespace contentNamespace = GraphQLUtils.convertUriToGraphQLContentNamespace(localization.getCmUriScheme());
-        boolean isOffline = false;
+        PublicationStatusKey key = new PublicationStatusKey(contentNamespace, publicationId);
+        if (!getPublicationStatus(key)) {
+            throw new NotFoundException("Unable to find publication " + publicationId);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        statusRefreshExecutor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("ish-publication-status-%d").setDaemon(true).build());
+        onlineStatusCache = CacheBuilder.newBuilder()
+                .maximumSize(statusCacheSize)
+                .refreshAfterWrite(statusTtlSeconds, TimeUnit.SECONDS)
+                .expireAfterWrite(Math.max(statusTtlSeconds, statusMaxStaleSeconds), TimeUnit.SECONDS)
+                .build(CacheLoader.asyncReloading(new CacheLoader<PublicationStatusKey, Boolean>() {
+                    @Override
+                    public Boolean load(PublicationStatusKey key) {
+                        return loadPublicationStatus(key, 1);
+                    }
+
+                    @Override
+                    public ListenableFuture<Boolean> reload(PublicationStatusKey key, Boolean oldValue) {
+                        // runs on the refresh executor, so waiting between attempts doesn't hold up a request
+                        return Futures.immediateFuture(loadPublicationStatus(key, statusRetryAttempts));
+                    }
+                }, statusRefreshExecutor));
+        statusLookupFailures = CacheBuilder.newBuilder()
+                .maximumSize(statusCacheSize)
+                .expireAfterWrite(Math.max(statusRetryBackoffMillis, statusRetryBackoffMaxMillis), TimeUnit.MILLISECONDS)
+                .build();
+        publicationListExecutor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("ish-publication-list-%d").setDaemon(true).build());
+        publicationListCache = CacheBuilder.newBuilder()
+                .refreshAfterWrite(publicationListTtlSeconds, TimeUnit.SECONDS)
+                .expireAfterWrite(Math.max(publicationListTtlSeconds, publicationListMaxStaleSeconds), TimeUnit.SECONDS)
+                .build(CacheLoader.asyncReloading(new CacheLoader<ContentNamespace, List<com.sdl.dxa.modules.ish.model.Publication>>() {
+                    @Override
+                    public List<com.sdl.dxa.modules.ish.model.Publication> load(ContentNamespace key) {
+                        return loadPublicationList(key);
+                    }
+                }, publicationListExecutor));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (statusRefreshExecutor != null) {
+            statusRefreshExecutor.shutdownNow();
+        }
+        if (publicationListExecutor != null) {
+            publicationListExecutor.shutdownNow();
+        }
+    }
+
+    private boolean getPublicationStatus(PublicationStatusKey key) {
+        if (onlineStatusCache == null) {
+            return loadPublicationStatus(key, 1);
+        }
+        if (onlineStatusCache.getIfPresent(key) == null) {
+            StatusLookupFailure failure = statusLookupFailures.getIfPresent(key);
+            if (failure != null && failure.isBackingOff()) {
+                throw new IshServiceException("Unable to find publication or its metadata for publication " +
+                        key.getPublicationId() + ", " + failure.getAttempts() + " lookups failed", failure.getCause());
+            }
+        }
         try {
-            Publication publication = apiClientProvider.getClient().getPublication(
-                    contentNamespace,
-                    publicationId,
-                    "requiredMeta:" + PublicationOnlineStatusMeta,
-                    null);
-            isOffline = publication == null ||
-                        publication.getCustomMetas() == null ||
-                        !publication.getCustomMetas()
-                                .getEdges()
-                                .stream()
-                                .anyMatch(meta -> PublicationOnlineValue.equals(meta.getNode().getValue()));
-        } catch (Exception e) {
-            if (exceptionHolder[0] == null) exceptionHolder[0] = e;
+            return onlineStatusCache.getUnchecked(key);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof IshServiceException) {
+                throw (IshServiceException) e.getCause();
+            }
+            throw new IshServiceException("Unable to find publication or its metadata for publication " +
+                    key.getPublicationId(), e.getCause());
+        }
+    }
+
+    private boolean loadPublicationStatus(PublicationStatusKey key, int maxAttempts) {
+        int attempts = Math.max(1, maxAttempts);
+        RuntimeException lastFailure = null;
+        for (int attempt = 1; attempt <= attempts; attempt++) {
             try {
-                Thread.sleep(200);
-                checkPublicationOnlineInternal(publicationId, localization, attempt, exceptionHolder);
-                LOG.error("Couldn't find publication metadata for id: " + publicationId + ", attempt: " + attempt);
-            } catch (InterruptedException ex) {
-                Thread.currentThread().interrupt();
-                LOG.error("Interrupted");
-                throw e;
+                boolean online = fetchPublicationStatus(key);
+                if (statusLookupFailures != null) {
+                    statusLookupFailures.invalidate(key);
+                }
+                return online;
+            } catch (RuntimeException e) {
+                lastFailure = e;
+                LOG.warn("Couldn't find publication metadata for id: " + key.getPublicationId() + ", attempt: " + attempt, e);
+            }
+            if (attempt < attempts && !pause(statusRetryBackoffMillis)) {
+                break;
             }
         }
-        if (isOffline) {
-            throw new NotFoundException("Unable to find publication " + publicationId);
+        if (statusLookupFailures != null) {
+            StatusLookupFailure failure = statusLookupFailures.asMap().merge(key,
+                    new StatusLookupFailure(1, statusRetryBackoffMillis, lastFailure),
+                    (previous, current) -> previous.next(statusRetryBackoffMillis, statusRetryBackoffMaxMillis, current.getCause()));
+            LOG.error("Couldn't find publication metadata for id: " + key.getPublicationId() +
+                    ", failed lookups: " + failure.getAttempts());
         }
+        throw new IshServiceException("Unable to find publication or its metadata for publication " +
+                key.getPublicationId() + " after " + attempts + " attempts", lastFailure);
     }
 
-    public void checkPublicationOnline(int publicationId, Localization localization) throws NotFoundException {
-        Exception[] exceptionHolder = new Exception[1];
-        checkPublicationOnlineInternal(publicationId, localization, 3, exceptionHolder);
+    private boolean fetchPublicationStatus(PublicationStatusKey key) {
+        Publication publication = apiClientProvider.getClient().getPublication(
+                key.getContentNamespace(),
+                key.getPublicationId(),
+                "requiredMeta:" + PublicationOnlineStatusMeta,
+                null);
+        return publication != null &&
+                publication.getCustomMetas() != null &&
+                publication.getCustomMetas()
+                        .getEdges()
+                        .stream()
+                        .anyMatch(meta -> PublicationOnlineValue.equals(meta.getNode().getValue()));
+    }
+
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 
     private com.sdl.dxa.modules.ish.model.Publication buildPublicationFrom(Publication publication) {
@@ -182,4 +372,37 @@ public class GraphQLPublicationService implements PublicationService {
 
         return result;
     }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class PublicationStatusKey {
+        private final ContentNamespace contentNamespace;
+
+        private final int publicationId;
+    }
+
+    @Getter
+    private static final class StatusLookupFailure {
+        private final int attempts;
+
+        private final long notBefore;
+
+        private final Throwable cause;
+
+        StatusLookupFailure(int attempts, long backoffMillis, Throwable cause) {
+            this.attempts = attempts;
+            this.notBefore = System.currentTimeMillis() + backoffMillis;
+            this.cause = cause;
+        }
+
+        StatusLookupFailure next(long baseBackoffMillis, long maxBackoffMillis, Throwable cause) {
+            long backoff = Math.min(baseBackoffMillis << Math.min(attempts, 16), maxBackoffMillis);
+            return new StatusLookupFailure(attempts + 1, backoff, cause);
+        }
+
+        boolean isBackingOff() {
+            return System.currentTimeMillis() < notBefore;
+        }
+    }
 }
@@ -1,30 +1,49 @@
 package com.sdl.dxa.modules.ish.services;
 
 import com.google.common.base.Strings;
-import com.redfin.sitemapgenerator.ChangeFreq;
-import com.redfin.sitemapgenerator.WebSitemapGenerator;
-import com.redfin.sitemapgenerator.WebSitemapUrl;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.redfin.sitemapgenerator.W3CDateFormat;
 import com.sdl.dxa.api.datamodel.model.SitemapItemModelData;
 import com.sdl.dxa.common.dto.ClaimHolder;
 import com.sdl.dxa.common.dto.DepthCounter;
 import com.sdl.dxa.common.dto.SitemapRequestDto;
 import com.sdl.dxa.modules.ish.exception.IshServiceException;
+import com.sdl.dxa.modules.ish.localization.PublicationRefreshedEvent;
 import com.sdl.dxa.modules.ish.model.Publication;
+import com.sdl.dxa.modules.ish.utils.UrlUtil;
 import com.sdl.dxa.tridion.navigation.dynamic.OnDemandNavigationModelProvider;
 import com.sdl.webapp.common.api.localization.Localization;
 import com.sdl.webapp.common.api.model.sorting.SortableSiteMap;
 import com.sdl.webapp.common.api.navigation.NavigationFilter;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 
-import java.net.MalformedURLException;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 /**
@@ -35,6 +54,9 @@ import java.util.regex.Pattern;
 public class GraphQLSitemapService implements SitemapService {
     private static final String CIL_SITEMAP_DATEFORMAT = "yyyy-MM-dd HH:mm:ss";
     private static final Pattern RegEx = Pattern.compile("^\\w?(\\d+)(-\\w)?(\\d+)?");
+    private static final String URLSET_START = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\" >\n";
+    private static final String URLSET_END = "</urlset>";
 
     @Value("${cil.sitemap.dateformat:yyyy-MM-dd HH:mm:ss}")
     private String cilSitemapDateFormat = CIL_SITEMAP_DATEFORMAT;
@@ -45,56 +67,149 @@ public class GraphQLSitemapService implements SitemapService {
     @Autowired
     private PublicationService publicationService;
 
+    @Value("${dxa.modules.ish.sitemap.parallelism:4}")
+    private int sitemapParallelism;
+
+    @Value("${dxa.modules.ish.sitemap.fragment.maxage.minutes:60}")
+    private int fragmentMaxAgeMinutes;
+
+    @Value("${dxa.modules.ish.sitemap.fragment.cachesize:1000}")
+    private int fragmentCacheSize;
+
+    private ExecutorService sitemapExecutor;
+
+    private Cache<PublicationFragmentKey, String> fragments;
+
+    @Override
     public String createSitemap(String contextPath, Localization localization) throws IshServiceException {
+        StringWriter writer = new StringWriter();
+        writeSitemap(contextPath, localization, writer);
+        return writer.toString();
+    }
+
+    /**
+     * Streams the sitemap to the given writer. Publications are fetched with bounded parallelism and every
+     * publication's {@code <url>} entries are cached as a fragment, which is rebuilt when the publication is refreshed
+     * or the fragment gets older than {@code dxa.modules.ish.sitemap.fragment.maxage.minutes}.
+     */
+    @Override
+    public void writeSitemap(String contextPath, Localization localization, Writer writer) throws IshServiceException {
         // Workaround: Currently the content service is not returning a sitemap for Docs only content
         // so the workaround is for each publication get the entire subtree and merge the results.
-        // This will cause several requests to be issued and results in quite a slow performance.
+        // This will cause several requests to be issued, so they are issued concurrently and cached per publication.
 
+        String link = trimTrailingSlashes(contextPath);
+        List<CompletableFuture<String>> fragmentRequests = new ArrayList<>();
         try {
-            WebSitemapGenerator sitemapGenerator = new WebSitemapGenerator(contextPath);
-            NavigationFilter navigationFilter = new NavigationFilter();
-            navigationFilter.setWithAncestors(false);
-            navigationFilter.setDescendantLevels(-1);
-
             List<Publication> pubs = publicationService.getPublicationList(localization);
+            Executor executor = sitemapExecutor != null ? sitemapExecutor : Runnable::run;
             for (Publication pub : pubs) {
-                try {
-                    Collection<SitemapItemModelData> items = getSitemapItemModelData(Integer.parseInt(pub.getId()), localization, null, null, navigationFilter);
-                    generateSitemapsForCurrentLevel(pub, contextPath, sitemapGenerator, items);
-                } catch (Exception e) {
-                    throw new IshServiceException("Could not generate sitemap for publication " + pub.getId(), e);
-                }
+                fragmentRequests.add(CompletableFuture.supplyAsync(() -> getPublicationFragment(pub, link, localization), executor));
             }
-            return String.join("", sitemapGenerator.writeAsStrings());
+
+            writer.write(URLSET_START);
+            for (int i = 0; i < pubs.size(); i++) {
+                writer.write(awaitFragment(fragmentRequests.get(i), pubs.get(i)));
+            }
+            writer.write(URLSET_END);
+            writer.flush();
+        } catch (IshServiceException ex) {
+            fragmentRequests.forEach(request -> request.cancel(false));
+            throw ex;
         } catch (Exception ex) {
+            fragmentRequests.forEach(request -> request.cancel(false));
             throw new IshServiceException("Could not generate sitemap for " + contextPath, ex);
         }
     }
 
-    private void generateSitemapsForCurrentLevel(Publication pub,
-                                                 String contextPath,
-                                                 WebSitemapGenerator sitemapGenerator,
-                                                 Collection<SitemapItemModelData> items) throws MalformedURLException {
+    @PostConstruct
+    public void init() {
+        sitemapExecutor = Executors.newFixedThreadPool(Math.max(1, sitemapParallelism),
+                new ThreadFactoryBuilder().setNameFormat("ish-sitemap-%d").setDaemon(true).build());
+        fragments = CacheBuilder.newBuilder()
+                .maximumSize(fragmentCacheSize)
+                .expireAfterWrite(fragmentMaxAgeMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (sitemapExecutor != null) {
+            sitemapExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Drops the fragments of a refreshed publication. Runs before other listeners, so sitemaps generated because of
+     * the same event already contain the new fragment.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onPublicationRefreshed(PublicationRefreshedEvent event) {
+        if (fragments != null && event.getPublicationId() != null) {
+            fragments.asMap().keySet().removeIf(key -> event.getPublicationId().equals(key.publicationId));
+        }
+    }
+
+    private String getPublicationFragment(Publication pub, String link, Localization localization) {
+        if (fragments == null) {
+            return buildPublicationFragment(pub, link, localization);
+        }
+        try {
+            return fragments.get(new PublicationFragmentKey(pub.getId(), link),
+                    () -> buildPublicationFragment(pub, link, localization));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new IshServiceException("Could not generate sitemap for publication " + pub.getId(), e.getCause());
+        }
+    }
+
+    private String buildPublicationFragment(Publication pub, String link, Localization localization) {
+        try {
+            NavigationFilter navigationFilter = new NavigationFilter();
+            navigationFilter.setWithAncestors(false);
+            navigationFilter.setDescendantLevels(-1);
+
+            Collection<SitemapItemModelData> items = getSitemapItemModelData(Integer.parseInt(pub.getId()), localization, null, null, navigationFilter);
+            StringBuilder fragment = new StringBuilder();
+            generateSitemapsForCurrentLevel(link, fragment, new W3CDateFormat(), new Date(), items);
+            return fragment.toString();
+        } catch (Exception e) {
+            throw new IshServiceException("Could not generate sitemap for publication " + pub.getId(), e);
+        }
+    }
+
+    private static String awaitFragment(CompletableFuture<String> request, Publication pub) {
+        try {
+            return request.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IshServiceException) {
+                throw (IshServiceException) e.getCause();
+            }
+            throw new IshServiceException("Could not generate sitemap for publication " + pub.getId(), e.getCause());
+        }
+    }
+
+    private void generateSitemapsForCurrentLevel(String link,
+                                                 StringBuilder fragment,
+                                                 W3CDateFormat dateFormat,
+                                                 Date currentDate,
+                                                 Collection<SitemapItemModelData> items) {
         if (items == null || items.isEmpty()) return;
-        Date currentDate = new Date();
         List<SitemapItemModelData> fixed = fixupSitemap(items, true);
         Collection<SitemapItemModelData> ordered = orderSitemapItems(fixed);
         for (SitemapItemModelData item : ordered) {
             if (!item.getItems().isEmpty()) {
-                generateSitemapsForCurrentLevel(pub, contextPath, sitemapGenerator, item.getItems());
+                generateSitemapsForCurrentLevel(link, fragment, dateFormat, currentDate, item.getItems());
             }
             if (Strings.isNullOrEmpty(item.getUrl())) continue;
-            String link = contextPath.replaceAll("(.*)/+$", "$1");
-            String fixedUrl = String.join("/", link, item.getUrl());
-            String fixedUrlWithouDubbedSlash = fixedUrl.replaceAll("(?<!https?:)//++", "/");
-
-            WebSitemapUrl url = new WebSitemapUrl
-                    .Options(fixedUrlWithouDubbedSlash)
-                    .lastMod(item.getPublishedDate() == null ? currentDate : item.getPublishedDate().toDate())
-                    .priority(1.0)
-                    .changeFreq(ChangeFreq.HOURLY)
-                    .build();
-            sitemapGenerator.addUrl(url);
+
+            fragment.append("  <url>\n    <loc>");
+            appendEscaped(fragment, link);
+            fragment.append('/');
+            appendPathWithoutDoubledSlashes(fragment, item.getUrl());
+            fragment.append("</loc>\n    <lastmod>")
+                    .append(dateFormat.format(item.getPublishedDate() == null ? currentDate : item.getPublishedDate().toDate()))
+                    .append("</lastmod>\n    <changefreq>hourly</changefreq>\n    <priority>1.0</priority>\n  </url>\n");
         }
     }
 
@@ -129,8 +244,10 @@ public class GraphQLSitemapService implements SitemapService {
             String url = entry.getUrl();
             if (url != null) {
                 // Remove all occurences of '/' at the beginning of the url and replace it with a single one:
-                String fixedUrl = "/" + url.replaceFirst("/*", "");
-                entry.setUrl(fixedUrl);
+                String fixedUrl = UrlUtil.withSingleLeadingSlash(url);
+                if (fixedUrl != url) {
+                    entry.setUrl(fixedUrl);
+                }
             }
             result.add(entry);
         }
@@ -140,4 +257,60 @@ public class GraphQLSitemapService implements SitemapService {
     private static Collection<SitemapItemModelData> orderSitemapItems(Collection<SitemapItemModelData> toc) {
         return SortableSiteMap.sortModelData(toc, SortableSiteMap.SORT_BY_TAXONOMY_AND_KEYWORD);
     }
-}
\ No newline at end of file
+
+    private static String trimTrailingSlashes(String contextPath) {
+        int end = contextPath.length();
+        while (end > 0 && contextPath.charAt(end - 1) == '/') end--;
+        return contextPath.substring(0, end);
+    }
+
+    private static void appendPathWithoutDoubledSlashes(StringBuilder builder, String path) {
+        boolean previousSlash = true;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '/') {
+                if (previousSlash) continue;
+                previousSlash = true;
+            } else {
+                previousSlash = false;
+            }
+            appendEscaped(builder, c);
+        }
+    }
+
+    private static void appendEscaped(StringBuilder builder, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            appendEscaped(builder, value.charAt(i));
+        }
+    }
+
+    private static void appendEscaped(StringBuilder builder, char c) {
+        switch (c) {
+            case '&':
+                builder.append("&amp;");
+                break;
+            case '<':
+                builder.append("&lt;");
+                break;
+            case '>':
+                builder.append("&gt;");
+                break;
+            case '"':
+                builder.append("&quot;");
+                break;
+            case '\'':
+                builder.append("&apos;");
+                break;
+            default:
+                builder.append(c);
+        }
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class PublicationFragmentKey {
+        private final String publicationId;
+
+        private final String link;
+    }
+}
@@ -0,0 +1,208 @@
+package com.sdl.dxa.modules.ish.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.sdl.dxa.modules.ish.localization.PublicationRefreshedEvent;
+import com.sdl.webapp.common.api.localization.Localization;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses, merges and canonicalizes the conditions sent with docs requests.
+ * <p>A condition set gets the same key whatever the order of its entries or the formatting of its json,
+ * so caches keyed by conditions share their entries. Parsed and merged condition sets are kept, so a repeated
+ * condition set is neither parsed nor merged with the publication conditions again.</p>
+ */
+@Slf4j
+@Service
+public class MergedConditionsService {
+
+    @Autowired
+    private ConditionService conditionService;
+
+    @Value("${dxa.modules.ish.conditions.cachesize:10000}")
+    private long conditionsCacheSize = 10000;
+
+    @Value("${dxa.modules.ish.conditions.cache.minutes:10}")
+    private long conditionsCacheMinutes = 10;
+
+    //Don't use an @Autowired objectmapper here, we need to change some configuration.
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private Cache<String, UserConditions> userConditions;
+
+    private Cache<String, Map<String, List>> mergedConditions;
+
+    @PostConstruct
+    public void init() {
+        userConditions = CacheBuilder.newBuilder()
+                .maximumSize(conditionsCacheSize)
+                .build();
+        mergedConditions = CacheBuilder.newBuilder()
+                .maximumSize(conditionsCacheSize)
+                .expireAfterWrite(conditionsCacheMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    @EventListener
+    public void onPublicationRefreshed(PublicationRefreshedEvent event) {
+        if (mergedConditions != null && event.getPublicationId() != null) {
+            String prefix = event.getPublicationId() + ":";
+            mergedConditions.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    /**
+     * Merges the user conditions of a request with the conditions of the publication.
+     *
+     * @param publicationId publication id
+     * @param conditions    conditions json as sent by the client, with the user conditions under {@code userConditions}
+     * @param localization  current localization
+     * @return merged conditions, and the canonical key of the user conditions
+     * @throws IOException if the conditions are not valid json
+     */
+    public MergedConditions getMergedConditions(int publicationId, String conditions, Localization localization) throws IOException {
+        if (conditions == null || conditions.isEmpty()) {
+            return MergedConditions.NONE;
+        }
+
+        UserConditions user = getUserConditions(conditions);
+        if (user.getValues().isEmpty()) {
+            return new MergedConditions(user.getKey(), Collections.emptyMap());
+        }
+
+        String mergedKey = publicationId + ":" + user.getKey();
+        Map<String, List> merged = mergedConditions == null ? null : mergedConditions.getIfPresent(mergedKey);
+        if (merged == null) {
+            merged = new HashMap<>();
+            try {
+                merge(merged, user, publicationId, localization);
+                merged = Collections.unmodifiableMap(merged);
+                if (mergedConditions != null) {
+                    mergedConditions.put(mergedKey, merged);
+                }
+            } catch (Exception ex) {
+                log.error("Could not merge conditions " + conditions + " for pub " + publicationId, ex);
+            }
+        }
+        return new MergedConditions(user.getKey(), merged);
+    }
+
+    private UserConditions getUserConditions(String conditions) throws IOException {
+        if (userConditions == null) {
+            return parse(conditions);
+        }
+        try {
+            return userConditions.get(conditions, () -> parse(conditions));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Unable to parse conditions " + conditions, e.getCause());
+        }
+    }
+
+    private UserConditions parse(String conditions) throws IOException {
+        Map conditionsMap = objectMapper.readValue(conditions, Map.class);
+        Map<Object, Object> parsed = conditionsMap == null ? null : (Map) conditionsMap.get("userConditions");
+
+        SortedMap<String, List> values = new TreeMap<>();
+        if (parsed != null) {
+            for (Map.Entry entry : parsed.entrySet()) {
+                Object value = entry.getValue();
+                if (value == null) {
+                    values.put(String.valueOf(entry.getKey()), null);
+                } else if (List.class.isAssignableFrom(value.getClass())) {
+                    values.put(String.valueOf(entry.getKey()), Collections.unmodifiableList(new ArrayList<>((List) value)));
+                } else {
+                    values.put(String.valueOf(entry.getKey()), Collections.singletonList(value));
+                }
+            }
+        }
+
+        String canonical = objectMapper.writeValueAsString(values);
+        String key = Hashing.sha256().hashString(canonical, StandardCharsets.UTF_8).toString();
+        return new UserConditions(key, Collections.unmodifiableSortedMap(values));
+    }
+
+    private void merge(Map<String, List> result, UserConditions user, int publicationId, Localization localization) throws Exception {
+        Map<String, Map> systemConditions = conditionService.getObjectConditions(publicationId, localization);
+        for (Map.Entry<String, Map> entry : systemConditions.entrySet()) {
+            Object[] values = (Object[]) entry.getValue().get("values");
+            if (values == null) {
+                result.put(entry.getKey(), null);
+            } else {
+                result.put(entry.getKey(), Arrays.asList(values));
+            }
+        }
+        //Overwrite system conditions with the userconditions:
+        for (Map.Entry<String, List> entry : user.getValues().entrySet()) {
+            result.put(entry.getKey(), entry.getValue() == null ? null : new ArrayList<>(entry.getValue()));
+        }
+    }
+
+    /**
+     * User conditions in canonical form.
+     */
+    @Getter
+    private static final class UserConditions {
+
+        private final String key;
+
+        private final SortedMap<String, List> values;
+
+        private UserConditions(String key, SortedMap<String, List> values) {
+            this.key = key;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Merged conditions of a request, with a key which is the same for all equivalent condition sets.
+     */
+    @Getter
+    public static final class MergedConditions {
+
+        /**
+         * No conditions given, nothing to merge.
+         */
+        public static final MergedConditions NONE = new MergedConditions("", null);
+
+        private final String key;
+
+        private final Map<String, List> conditions;
+
+        private MergedConditions(String key, Map<String, List> conditions) {
+            this.key = key;
+            this.conditions = conditions;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.sdl.dxa.modules.ish.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conditions of a publication, built from its {@code conditionsused} and {@code conditionmetadata} metadata.
+ * <p>Every condition is a map with the metadata of the condition (e.g. {@code datatype} and {@code range})
+ * and its used values under {@code values}. Instances are immutable and keep their json form.</p>
+ */
+final class PublicationConditions {
+
+    static final String VALUES = "values";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final Map<String, Map> conditions;
+
+    private final String json;
+
+    private PublicationConditions(Map<String, Map> conditions, String json) {
+        this.conditions = conditions;
+        this.json = json;
+    }
+
+    Map<String, Map> getConditions() {
+        return conditions;
+    }
+
+    String getJson() {
+        return json;
+    }
+
+    /**
+     * Parses both metadata values in a single pass each.
+     *
+     * @param conditionsUsed    json object with the used values of every condition
+     * @param conditionMetadata json object with the metadata of every condition
+     * @return conditions of the publication
+     * @throws IOException if one of the values is not a json object
+     */
+    static PublicationConditions parse(String conditionsUsed, String conditionMetadata) throws IOException {
+        Map<String, Object[]> values = new LinkedHashMap<>();
+        try (JsonParser parser = JSON.getFactory().createParser(conditionsUsed)) {
+            startObject(parser, conditionsUsed);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                values.put(name, readValues(parser));
+            }
+        }
+
+        Map<String, Map> conditions = new LinkedHashMap<>();
+        try (JsonParser parser = JSON.getFactory().createParser(conditionMetadata)) {
+            startObject(parser, conditionMetadata);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                Map<String, Object> condition = new LinkedHashMap<>();
+                Object[] used = values.remove(name);
+                if (used != null) {
+                    condition.put(VALUES, used);
+                }
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.getCurrentName();
+                        parser.nextToken();
+                        condition.put(field, JSON.readValue(parser, Object.class));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+                conditions.put(name, Collections.unmodifiableMap(condition));
+            }
+        }
+        // conditions without metadata still have their values
+        for (Map.Entry<String, Object[]> entry : values.entrySet()) {
+            conditions.put(entry.getKey(), Collections.singletonMap(VALUES, entry.getValue()));
+        }
+
+        return new PublicationConditions(Collections.unmodifiableMap(conditions), JSON.writeValueAsString(conditions));
+    }
+
+    private static void startObject(JsonParser parser, String json) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Conditions metadata is not a json object: " + json);
+        }
+    }
+
+    private static Object[] readValues(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+            return new Object[]{JSON.readValue(parser, Object.class)};
+        }
+        List<Object> values = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            values.add(JSON.readValue(parser, Object.class));
+        }
+        return values.toArray();
+    }
+}
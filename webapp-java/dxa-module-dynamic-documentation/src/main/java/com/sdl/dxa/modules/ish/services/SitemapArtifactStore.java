@@ -0,0 +1,251 @@
+package com.sdl.dxa.modules.ish.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sdl.dxa.modules.ish.exception.IshServiceException;
+import com.sdl.dxa.modules.ish.localization.PublicationRefreshedEvent;
+import com.sdl.webapp.common.api.localization.Localization;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the last generated sitemap, plain and gzipped, so requests for it are served from memory.
+ * <p>Sitemaps are only ever generated on a background thread: the first request for a sitemap waits for it, after that
+ * every {@code dxa.modules.ish.sitemap.artifact.refresh.minutes} and whenever a publication is refreshed the sitemaps
+ * are generated again while the previous ones are still served. A failed generation keeps the previous sitemap.</p>
+ */
+@Slf4j
+@Service
+@Profile("dxa.docs.enabled")
+public class SitemapArtifactStore {
+
+    @Autowired
+    private SitemapService sitemapService;
+
+    @Value("${dxa.modules.ish.sitemap.artifact.refresh.minutes:30}")
+    private long refreshMinutes = 30;
+
+    @Value("${dxa.modules.ish.sitemap.artifact.maxentries:16}")
+    private long maxEntries = 16;
+
+    @Value("${dxa.modules.ish.sitemap.artifact.wait.seconds:60}")
+    private long waitSeconds = 60;
+
+    private ScheduledExecutorService builder;
+
+    private Cache<ArtifactKey, SitemapArtifact> artifacts;
+
+    private final ConcurrentMap<ArtifactKey, CompletableFuture<SitemapArtifact>> builds = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        artifacts = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .build();
+        builder = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("ish-sitemap-artifacts-%d").setDaemon(true).build());
+        if (refreshMinutes > 0) {
+            builder.scheduleWithFixedDelay(this::rebuildAll, refreshMinutes, refreshMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (builder != null) {
+            builder.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs after the sitemap service dropped the cached parts of the refreshed publication.
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onPublicationRefreshed(PublicationRefreshedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Generates all known sitemaps again in the background, the current ones are served until then.
+     */
+    public void invalidate() {
+        if (builder == null) {
+            return;
+        }
+        try {
+            builder.execute(this::rebuildAll);
+        } catch (RejectedExecutionException e) {
+            log.debug("Sitemap store is shut down, not rebuilding sitemaps", e);
+        }
+    }
+
+    /**
+     * Returns the sitemap for the context path, waiting for it if it has never been generated.
+     *
+     * @param contextPath  context path the sitemap urls are relative to
+     * @param localization current localization
+     * @return last generated sitemap
+     * @throws IshServiceException if the sitemap cannot be generated
+     */
+    public SitemapArtifact getSitemap(String contextPath, Localization localization) throws IshServiceException {
+        ArtifactKey key = new ArtifactKey(contextPath, localization.getId(), localization);
+        if (artifacts == null) {
+            return build(key, null);
+        }
+        SitemapArtifact artifact = artifacts.getIfPresent(key);
+        if (artifact != null) {
+            return artifact;
+        }
+
+        try {
+            return rebuild(key).get(waitSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IshServiceException) {
+                throw (IshServiceException) e.getCause();
+            }
+            throw new IshServiceException("Could not generate sitemap for " + contextPath, e.getCause());
+        } catch (TimeoutException e) {
+            throw new IshServiceException("Sitemap for " + contextPath + " is not generated yet", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IshServiceException("Interrupted while waiting for sitemap of " + contextPath, e);
+        }
+    }
+
+    private void rebuildAll() {
+        for (ArtifactKey key : artifacts.asMap().keySet()) {
+            rebuild(key);
+        }
+    }
+
+    /**
+     * Starts generating the sitemap unless it is already being generated.
+     */
+    private CompletableFuture<SitemapArtifact> rebuild(ArtifactKey key) {
+        CompletableFuture<SitemapArtifact> created = new CompletableFuture<>();
+        CompletableFuture<SitemapArtifact> running = builds.putIfAbsent(key, created);
+        if (running != null) {
+            return running;
+        }
+        Runnable task = () -> {
+            try {
+                SitemapArtifact artifact = build(key, artifacts.getIfPresent(key));
+                artifacts.put(key, artifact);
+                created.complete(artifact);
+            } catch (RuntimeException e) {
+                log.warn("Could not generate sitemap for {}, keeping the previous one", key.getContextPath(), e);
+                created.completeExceptionally(e);
+            } finally {
+                builds.remove(key, created);
+            }
+        };
+        try {
+            builder.execute(task);
+        } catch (RejectedExecutionException e) {
+            builds.remove(key, created);
+            created.completeExceptionally(new IshServiceException("Sitemap store is shut down", e));
+        }
+        return created;
+    }
+
+    private SitemapArtifact build(ArtifactKey key, SitemapArtifact previous) {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream(64 * 1024);
+        try (Writer writer = new OutputStreamWriter(xml, StandardCharsets.UTF_8)) {
+            sitemapService.writeSitemap(key.getContextPath(), key.getLocalization(), writer);
+        } catch (IOException e) {
+            throw new IshServiceException("Could not write sitemap for " + key.getContextPath(), e);
+        }
+        byte[] content = xml.toByteArray();
+        if (previous != null && Arrays.equals(previous.getXml(), content)) {
+            // nothing changed, keep the validators clients already have
+            return previous;
+        }
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream(content.length / 8 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new IshServiceException("Could not compress sitemap for " + key.getContextPath(), e);
+        }
+        String hash = Hashing.sha256().hashBytes(content).toString().substring(0, 32);
+        return new SitemapArtifact(content, gzip.toByteArray(), hash, System.currentTimeMillis() / 1000 * 1000);
+    }
+
+    @Getter
+    @EqualsAndHashCode(exclude = "localization")
+    private static final class ArtifactKey {
+
+        private final String contextPath;
+
+        private final String localizationId;
+
+        private final Localization localization;
+
+        private ArtifactKey(String contextPath, String localizationId, Localization localization) {
+            this.contextPath = contextPath;
+            this.localizationId = localizationId;
+            this.localization = localization;
+        }
+    }
+
+    /**
+     * Generated sitemap with its validators.
+     */
+    @Getter
+    public static final class SitemapArtifact {
+
+        private final byte[] xml;
+
+        private final byte[] gzip;
+
+        private final String hash;
+
+        private final long lastModified;
+
+        private SitemapArtifact(byte[] xml, byte[] gzip, String hash, long lastModified) {
+            this.xml = xml;
+            this.gzip = gzip;
+            this.hash = hash;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Entity tag of the plain or the gzipped sitemap, both variants have a different one.
+         *
+         * @param gzipped whether the gzipped variant is served
+         * @return entity tag
+         */
+        public String getETag(boolean gzipped) {
+            return "\"" + hash + (gzipped ? "-gz" : "") + "\"";
+        }
+    }
+}
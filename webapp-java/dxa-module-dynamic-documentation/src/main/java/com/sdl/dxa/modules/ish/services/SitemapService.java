@@ -3,6 +3,27 @@ package com.sdl.dxa.modules.ish.services;
 import com.sdl.dxa.modules.ish.exception.IshServiceException;
 import com.sdl.webapp.common.api.localization.Localization;
 
+import java.io.IOException;
+import java.io.Writer;
+
 public interface SitemapService {
     String createSitemap(String contextPath, Localization localization) throws IshServiceException;
+
+    /**
+     * Writes the sitemap to the given writer. Implementations that are able to stream the sitemap
+     * should override this, by default the whole sitemap is created first.
+     *
+     * @param contextPath  context path the sitemap urls are relative to
+     * @param localization current localization
+     * @param writer       target of the sitemap
+     * @throws IshServiceException if the sitemap cannot be created or written
+     */
+    default void writeSitemap(String contextPath, Localization localization, Writer writer) throws IshServiceException {
+        try {
+            writer.write(createSitemap(contextPath, localization));
+            writer.flush();
+        } catch (IOException e) {
+            throw new IshServiceException("Could not write sitemap for " + contextPath, e);
+        }
+    }
 }
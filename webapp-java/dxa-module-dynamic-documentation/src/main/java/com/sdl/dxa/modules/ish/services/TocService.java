@@ -1,6 +1,8 @@
 package com.sdl.dxa.modules.ish.services;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sdl.dxa.modules.ish.providers.IshDynamicNavigationProvider;
+import com.sdl.dxa.modules.ish.utils.ConditionUtil;
 import com.sdl.webapp.common.api.WebRequestContext;
 import com.sdl.webapp.common.api.content.ContentProviderException;
 import com.sdl.webapp.common.api.localization.Localization;
@@ -11,14 +13,23 @@ import com.sdl.webapp.common.exceptions.DxaItemNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 /**
@@ -31,12 +42,30 @@ public class TocService {
     @Qualifier("ishNavigationProvider")
     private IshDynamicNavigationProvider ishNavigationProvider;
 
-    @Cacheable(value = "ish", key = "{ #publicationId, #sitemapItemId, #includeAncestors, #descendantLevels, #conditions }", sync = true)
+    @Value("${dxa.modules.ish.toc.ancestors.parallelism:8}")
+    private int ancestorsParallelism;
+
+    private ExecutorService siblingsExecutor;
+
+    @PostConstruct
+    public void init() {
+        siblingsExecutor = Executors.newFixedThreadPool(Math.max(1, ancestorsParallelism),
+                new ThreadFactoryBuilder().setNameFormat("ish-toc-siblings-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (siblingsExecutor != null) {
+            siblingsExecutor.shutdownNow();
+        }
+    }
+
+    @Cacheable(value = "ish", key = "{ #publicationId, #sitemapItemId, #includeAncestors, #descendantLevels, #conditionsKey }", sync = true)
     public Collection<SitemapItem> getToc(Integer publicationId,
                                           String sitemapItemId,
                                           boolean includeAncestors,
                                           int descendantLevels,
-                                          String conditions,
+                                          String conditionsKey,
                                           WebRequestContext webRequestContext) throws ContentProviderException {
         if (ishNavigationProvider == null) {
             String message = "On-Demand Navigation is not enabled because current navigation provider doesn't " +
@@ -61,41 +90,86 @@ public class TocService {
         }
 
         if (!includeAncestors) {
-            return fixupSiteMap(navigationSubtree, true);
+            return removePageNodes(navigationSubtree);
         }
         // if we are including ancestors we also need to get all the direct siblings for each
         // level in the hierarchy.
 
         SitemapItem node = findNode(navigationSubtree, sitemapItemId);
 
-        // for each parent node get sibling nodes
+        // the ancestor chain is already known at this point, so the siblings of every level
+        // are requested at once instead of one level after another
+        List<SitemapItem> levels = new ArrayList<>();
         while (node != null && node.getParent() != null) {
-            NavigationFilter explicitFilter = new NavigationFilter();
-            explicitFilter.setWithAncestors(false);
-            explicitFilter.setDescendantLevels(1);
+            levels.add(node);
+            node = node.getParent();
+        }
+        if (levels.isEmpty()) {
+            return removePageNodes(navigationSubtree);
+        }
 
-            Collection<SitemapItem> siblings = ishNavigationProvider.getNavigationSubtree(node.getParent().getId(),
-                    explicitFilter,
-                    localization);
+        Executor executor = siblingsExecutor != null ? siblingsExecutor : Runnable::run;
+        List<CompletableFuture<Collection<SitemapItem>>> siblingRequests = new ArrayList<>(levels.size());
+        for (SitemapItem level : levels) {
+            String parentId = level.getParent().getId();
+            siblingRequests.add(CompletableFuture.supplyAsync(
+                    ConditionUtil.withCurrentClaimStore(() -> getSiblings(parentId, localization)), executor));
+        }
+
+        for (int i = 0; i < levels.size(); i++) {
+            SitemapItem level = levels.get(i);
+            Collection<SitemapItem> siblings = awaitSiblings(siblingRequests.get(i), level.getParent().getId(), publicationId);
 
             HashSet<String> children = new HashSet<>();
-            for(SitemapItem item : node.getParent().getItems()) {
+            for(SitemapItem item : level.getParent().getItems()) {
                 children.add(item.getId());
             }
             // filter out duplicates and Page types since we don't wish to include them in TOC
-            String nodeId = node.getId();
+            String nodeId = level.getId();
             siblings = siblings
                     .stream()
                     .filter(sibling -> !sibling.getId().equals(nodeId) && !"Page".equals(sibling.getType()) && !children.contains(sibling.getId()))
                     .collect(Collectors.toList());
+            if (siblings.isEmpty()) {
+                continue;
+            }
+            // the levels come sorted from the navigation provider, only a level with added siblings is sorted again
+            SitemapItem parent = level.getParent();
             for (SitemapItem sibling : siblings) {
-                node.getParent().getItems().add(sibling);
+                parent.getItems().add(sibling);
             }
+            parent.setItems(new ArrayList<>(SortableSiteMap.sortItem(parent.getItems(), SortableSiteMap.SORT_BY_TAXONOMY_AND_KEYWORD)));
+        }
 
-            node = node.getParent();
+        return removePageNodes(navigationSubtree);
+    }
+
+    private Collection<SitemapItem> getSiblings(String parentId, Localization localization) {
+        NavigationFilter explicitFilter = new NavigationFilter();
+        explicitFilter.setWithAncestors(false);
+        explicitFilter.setDescendantLevels(1);
+        try {
+            return ishNavigationProvider.getNavigationSubtree(parentId, explicitFilter, localization);
+        } catch (DxaItemNotFoundException e) {
+            throw new CompletionException(e);
         }
+    }
 
-        return fixupSiteMap(navigationSubtree, true);
+    private static Collection<SitemapItem> awaitSiblings(CompletableFuture<Collection<SitemapItem>> request,
+                                                         String parentId,
+                                                         Integer publicationId) throws ContentProviderException {
+        try {
+            return request.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ContentProviderException) {
+                throw (ContentProviderException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ContentProviderException("Unable to load siblings of " + parentId + " for publication " + publicationId, cause);
+        }
     }
 
     private static SitemapItem findNode(Collection<SitemapItem> nodes, String nodeId) {
@@ -109,33 +183,28 @@ public class TocService {
         return null;
     }
 
-    private static Collection<SitemapItem> fixupSiteMap(Collection<SitemapItem> toc, boolean removePageNodes) {
-        fixupSiteMapRecursive(toc, removePageNodes);
-        return SortableSiteMap.sortItem(toc, SortableSiteMap.SORT_BY_TAXONOMY_AND_KEYWORD);
+    /**
+     * Removes the page nodes, which are not part of the TOC. The urls of the nodes are already normalized and
+     * every level is already sorted by the navigation provider, so this is a single pass which keeps the order.
+     */
+    private static Collection<SitemapItem> removePageNodes(List<SitemapItem> toc) {
+        removePageNodesRecursive(toc);
+        return Collections.unmodifiableList(toc);
     }
 
-    private static void fixupSiteMapRecursive(Collection<SitemapItem> toc, boolean removePageNodes) {
+    private static void removePageNodesRecursive(Collection<SitemapItem> toc) {
         if (toc == null) return;
 
         Iterator<SitemapItem> i = toc.iterator();
         while(i.hasNext()) {
             SitemapItem entry = i.next();
-            if (removePageNodes && "Page".equals(entry.getType())) {
+            if ("Page".equals(entry.getType())) {
                 i.remove();
                 continue;
             }
-
-            String url = entry.getUrl();
-            if (url != null) {
-                // Remove all occurences of '/' at the beginning of the url and replace it with a single one:
-                String fixedUrl = "/" + url.replaceFirst("/*", "");
-                entry.setUrl(fixedUrl);
-            }
-
             if (entry.getItems().isEmpty()) continue;
 
-            Collection<SitemapItem> items = fixupSiteMap(entry.getItems(), true);
-            entry.setItems(items);
+            removePageNodesRecursive(entry.getItems());
         }
     }
 }
@@ -1,11 +1,25 @@
 package com.sdl.dxa.modules.ish.services;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sdl.dxa.modules.ish.localization.PublicationRefreshedEvent;
 import com.sdl.dxa.modules.ish.providers.IshReferenceProvider;
 import com.sdl.webapp.common.api.content.ContentProviderException;
 import com.tridion.meta.Item;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Services related to retrieval of content using IshContentProvider.
  */
@@ -15,6 +29,30 @@ public class TridionDocsContentService {
     @Autowired
     private IshReferenceProvider ishReferenceProvider;
 
+    @Value("${dxa.modules.ish.reference.cachesize:10000}")
+    private long referenceCacheSize = 10000;
+
+    @Value("${dxa.modules.ish.reference.cache.seconds:300}")
+    private long referenceCacheSeconds = 300;
+
+    private Cache<String, Item> references;
+
+    @PostConstruct
+    public void init() {
+        references = CacheBuilder.newBuilder()
+                .maximumSize(referenceCacheSize)
+                .expireAfterWrite(referenceCacheSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @EventListener
+    public void onPublicationRefreshed(PublicationRefreshedEvent event) {
+        if (references != null && event.getPublicationId() != null) {
+            String prefix = event.getPublicationId() + ":";
+            references.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
     /**
      * Returns page Id in given publication, which ishLogicalRef equals to given reference value.
      *
@@ -27,6 +65,52 @@ public class TridionDocsContentService {
      */
     public Item getPageIdByIshLogicalReference(Integer publicationId, String isLogicalReferenceValue)
             throws ContentProviderException {
-        return ishReferenceProvider.getPageIdByIshLogicalReference(publicationId, isLogicalReferenceValue);
+        Item item = references == null ? null : references.getIfPresent(cacheKey(publicationId, isLogicalReferenceValue));
+        if (item == null) {
+            item = ishReferenceProvider.getPageIdByIshLogicalReference(publicationId, isLogicalReferenceValue);
+            if (references != null && item != null) {
+                references.put(cacheKey(publicationId, isLogicalReferenceValue), item);
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Returns the page Ids in given publication of several reference values. References which are not cached yet
+     * are resolved together, so resolving all links of a topic takes a single lookup.
+     *
+     * @param publicationId            target publication Id where to look for ishlogicalref
+     * @param isLogicalReferenceValues values of meta field 'ishlogicalref.object.id'
+     * @return page Id of topic in given publication for every reference value
+     * @throws ContentProviderException in case if data retrieving fails
+     */
+    public Map<String, Item> getPageIdsByIshLogicalReferences(Integer publicationId, Collection<String> isLogicalReferenceValues)
+            throws ContentProviderException {
+        Map<String, Item> result = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String reference : new LinkedHashSet<>(isLogicalReferenceValues)) {
+            Item item = references == null ? null : references.getIfPresent(cacheKey(publicationId, reference));
+            if (item == null) {
+                missing.add(reference);
+            }
+            result.put(reference, item);
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<String, Item> resolved = ishReferenceProvider.getPageIdsByIshLogicalReferences(publicationId, missing);
+        for (String reference : missing) {
+            Item item = resolved.get(reference);
+            result.put(reference, item);
+            if (references != null && item != null) {
+                references.put(cacheKey(publicationId, reference), item);
+            }
+        }
+        return result;
+    }
+
+    private static String cacheKey(Integer publicationId, String reference) {
+        return publicationId + ":" + reference;
     }
 }
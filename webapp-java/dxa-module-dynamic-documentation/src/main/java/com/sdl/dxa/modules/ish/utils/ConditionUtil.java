@@ -1,15 +1,21 @@
 package com.sdl.dxa.modules.ish.utils;
 
+import com.tridion.ambientdata.claimstore.ClaimStore;
 import com.tridion.ambientdata.claimstore.DefaultClaimStore;
 import com.tridion.ambientdata.configuration.CartridgeCategory;
 import com.tridion.ambientdata.web.WebContext;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class ConditionUtil {
 
+    private static final String CONDITIONS_KEY_ATTRIBUTE = ConditionUtil.class.getName() + ".conditionsKey";
+
     public static void addConditions(URI key, Map<String, List> conditions) {
         WebContext.setContext(new WebContext(CartridgeCategory.EMPTY_CATEGORY));
         if (WebContext.getCurrentClaimStore() == null) {
@@ -22,4 +28,52 @@ public class ConditionUtil {
         }
     }
 
+    /**
+     * Remembers the canonical key of the conditions of the current request, see {@link #getConditionsKey()}.
+     */
+    public static void setConditionsKey(String conditionsKey) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(CONDITIONS_KEY_ATTRIBUTE, conditionsKey, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Canonical key of the conditions of the current request, to be used in cache keys of content which depends
+     * on the conditions.
+     *
+     * @return key of the conditions, empty if the request has no conditions
+     */
+    public static String getConditionsKey() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object conditionsKey = attributes == null ? null :
+                attributes.getAttribute(CONDITIONS_KEY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return conditionsKey == null ? "" : conditionsKey.toString();
+    }
+
+    /**
+     * Wraps the supplier so that it sees the claim store (and so the merged conditions) of the calling thread
+     * when it is executed on another thread. The web context the executing thread had before is restored afterwards,
+     * so pooled threads don't keep the context (and the claims) of a previous request.
+     */
+    public static <T> Supplier<T> withCurrentClaimStore(Supplier<T> supplier) {
+        ClaimStore claimStore = WebContext.getCurrentClaimStore();
+        if (claimStore == null) {
+            return supplier;
+        }
+        return () -> {
+            if (WebContext.getCurrentClaimStore() == claimStore) {
+                return supplier.get();
+            }
+            WebContext previousContext = WebContext.getContext();
+            WebContext.setContext(new WebContext(CartridgeCategory.EMPTY_CATEGORY));
+            WebContext.setCurrentClaimStore(claimStore);
+            try {
+                return supplier.get();
+            } finally {
+                WebContext.setCurrentClaimStore(null);
+                WebContext.setContext(previousContext);
+            }
+        };
+    }
 }
@@ -0,0 +1,288 @@
+package com.sdl.dxa.modules.ish.utils;
+
+import com.google.common.primitives.Ints;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * Single pass rewriter which turns links to other topics of the form
+ * {@code /<pubId>/<topicId>/<pubTitle>/<topicTitle>/<anchor>} in {@code <a href>} into the hash notation
+ * {@code #<anchor>}.
+ * <p>The html is scanned once, tag by tag, and only the link values which change are replaced,
+ * everything else is copied as is.</p>
+ */
+@Slf4j
+public final class TopicBodyRewriter {
+
+    private final String html;
+
+    private StringBuilder out;
+
+    private int copied;
+
+    private TopicBodyRewriter(String html) {
+        this.html = html;
+    }
+
+    /**
+     * Replaces the links to other topics by their anchor.
+     *
+     * @param html html of the topic body
+     * @return rewritten html, the same instance if nothing had to be changed
+     */
+    public static String replaceAnchors(String html) {
+        TopicBodyRewriter rewriter = new TopicBodyRewriter(html);
+        rewriter.run();
+        return rewriter.out == null ? html : rewriter.out.toString();
+    }
+
+    private void run() {
+        int length = html.length();
+        int pos = 0;
+        while (pos < length) {
+            int lt = html.indexOf('<', pos);
+            if (lt < 0 || lt + 1 >= length) {
+                break;
+            }
+            char next = html.charAt(lt + 1);
+            if (next == '!' && html.startsWith("<!--", lt)) {
+                int end = html.indexOf("-->", lt + 4);
+                pos = end < 0 ? length : end + 3;
+            } else if (isLetter(next)) {
+                pos = processTag(lt + 1);
+            } else {
+                pos = lt + 1;
+            }
+        }
+
+        if (out != null) {
+            out.append(html, copied, length);
+        }
+    }
+
+    /**
+     * Processes the attributes of a start tag.
+     *
+     * @return position after the tag
+     */
+    private int processTag(int nameStart) {
+        int length = html.length();
+        int pos = nameStart;
+        while (pos < length && !isWhitespace(html.charAt(pos)) && html.charAt(pos) != '>' && html.charAt(pos) != '/') {
+            pos++;
+        }
+        boolean anchor = pos - nameStart == 1 && html.charAt(nameStart) == 'a';
+
+        while (pos < length) {
+            char c = html.charAt(pos);
+            if (c == '>') {
+                return pos + 1;
+            }
+            if (isWhitespace(c) || c == '/') {
+                pos++;
+                continue;
+            }
+
+            int attrStart = pos;
+            while (pos < length && !isWhitespace(html.charAt(pos)) && "=>/".indexOf(html.charAt(pos)) < 0) {
+                pos++;
+            }
+            int attrEnd = pos;
+            pos = skipWhitespace(pos);
+            if (pos >= length || html.charAt(pos) != '=') {
+                continue;
+            }
+            pos = skipWhitespace(pos + 1);
+            if (pos >= length) {
+                break;
+            }
+
+            char quote = html.charAt(pos);
+            if (quote == '"' || quote == '\'') {
+                int valueStart = pos + 1;
+                int valueEnd = html.indexOf(quote, valueStart);
+                if (valueEnd < 0) {
+                    return length;
+                }
+                processAttribute(anchor, attrStart, attrEnd, valueStart, valueEnd);
+                pos = valueEnd + 1;
+            } else {
+                while (pos < length && !isWhitespace(html.charAt(pos)) && html.charAt(pos) != '>') {
+                    pos++;
+                }
+            }
+        }
+        return length;
+    }
+
+    private void processAttribute(boolean anchor, int attrStart, int attrEnd, int valueStart, int valueEnd) {
+        if (!anchor || !regionEquals(attrStart, attrEnd, "href")) {
+            return;
+        }
+        int fragmentStart = topicAnchorStart(valueStart, valueEnd);
+        if (fragmentStart == Integer.MAX_VALUE) {
+            String fragment = topicAnchorOf(html.substring(valueStart, valueEnd));
+            if (fragment != null) {
+                replace(valueStart, valueEnd, fragment, -1);
+            }
+        } else if (fragmentStart >= 0) {
+            replace(valueStart, valueEnd, null, fragmentStart);
+        }
+    }
+
+    /**
+     * Replaces the value by {@code #} and either the given fragment or the part of the html starting at
+     * {@code fragmentStart} up to the end of the value.
+     */
+    private void replace(int valueStart, int valueEnd, String fragment, int fragmentStart) {
+        flush(valueStart);
+        out.append('#');
+        if (fragment != null) {
+            out.append(fragment);
+        } else {
+            out.append(html, fragmentStart, fragmentEnd(fragmentStart, valueEnd));
+        }
+        copied = valueEnd;
+    }
+
+    /**
+     * Finds the last path segment of a link to another topic.
+     *
+     * @return the start of the last path segment, {@link Integer#MAX_VALUE} if the link has to be parsed
+     * as an URI to tell, or {@code -1} if it is not a link to a topic
+     */
+    private int topicAnchorStart(int start, int end) {
+        boolean hasFragment = false;
+        for (int i = start; i < end; i++) {
+            char c = html.charAt(i);
+            if (c == '#') {
+                if (hasFragment) {
+                    return Integer.MAX_VALUE;
+                }
+                hasFragment = true;
+            } else if (!isPlainUriChar(c)) {
+                // escaped or illegal characters, leave the decoding and validation to URI
+                return Integer.MAX_VALUE;
+            }
+        }
+
+        int pathStart = start;
+        int scheme = start;
+        while (scheme < end && isSchemeChar(html.charAt(scheme), scheme == start)) {
+            scheme++;
+        }
+        if (scheme > start && scheme < end && html.charAt(scheme) == ':') {
+            pathStart = scheme + 1;
+            if (pathStart >= end || html.charAt(pathStart) != '/') {
+                // opaque URI without a path, such as mailto:
+                return -1;
+            }
+        }
+        if (html.startsWith("//", pathStart) && pathStart + 2 <= end) {
+            pathStart += 2;
+            while (pathStart < end && "/?#".indexOf(html.charAt(pathStart)) < 0) {
+                pathStart++;
+            }
+        }
+        int pathEnd = pathStart;
+        while (pathEnd < end && html.charAt(pathEnd) != '?' && html.charAt(pathEnd) != '#') {
+            pathEnd++;
+        }
+
+        int parts = 0;
+        int lastPartStart = -1;
+        int i = pathStart;
+        while (i < pathEnd) {
+            if (html.charAt(i) == '/') {
+                i++;
+                continue;
+            }
+            int partStart = i;
+            while (i < pathEnd && html.charAt(i) != '/') {
+                i++;
+            }
+            parts++;
+            if (parts > 5 || (parts <= 2 && Ints.tryParse(html.substring(partStart, i)) == null)) {
+                return -1;
+            }
+            lastPartStart = partStart;
+        }
+        return parts == 5 ? lastPartStart : -1;
+    }
+
+    private int fragmentEnd(int fragmentStart, int valueEnd) {
+        int i = fragmentStart;
+        while (i < valueEnd && "/?#".indexOf(html.charAt(i)) < 0) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Slow path for links which need decoding, same rules as {@link #topicAnchorStart(int, int)}.
+     */
+    private static String topicAnchorOf(String link) {
+        String path;
+        try {
+            path = new URI(link).getPath();
+        } catch (URISyntaxException ex) {
+            log.trace("URL ({}) is malformed", link);
+            return null;
+        }
+        if (path == null) {
+            return null;
+        }
+        String[] parts = new String[5];
+        int count = 0;
+        for (String part : path.split("/")) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            if (count == 5) {
+                return null;
+            }
+            parts[count++] = part;
+        }
+        if (count == 5 && Ints.tryParse(parts[0]) != null && Ints.tryParse(parts[1]) != null) {
+            return parts[4];
+        }
+        return null;
+    }
+
+    private void flush(int upTo) {
+        if (out == null) {
+            out = new StringBuilder(html.length() + 64);
+        }
+        out.append(html, copied, upTo);
+        copied = upTo;
+    }
+
+    private boolean regionEquals(int start, int end, String value) {
+        return end - start == value.length() && html.startsWith(value, start);
+    }
+
+    private int skipWhitespace(int pos) {
+        while (pos < html.length() && isWhitespace(html.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isSchemeChar(char c, boolean first) {
+        return isLetter(c) || (!first && ((c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.'));
+    }
+
+    private static boolean isPlainUriChar(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9') || "-._~:/?#@!$&'()*+,;=".indexOf(c) >= 0;
+    }
+}
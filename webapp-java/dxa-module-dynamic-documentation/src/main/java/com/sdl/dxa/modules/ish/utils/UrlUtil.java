@@ -0,0 +1,27 @@
+package com.sdl.dxa.modules.ish.utils;
+
+/**
+ * Utility class for the urls of navigation and sitemap entries.
+ */
+public class UrlUtil {
+
+    /**
+     * Replaces all occurrences of '/' at the beginning of the url by a single one.
+     *
+     * @param url url of a navigation entry, may be {@code null}
+     * @return url starting with exactly one '/', the same instance if it already does
+     */
+    public static String withSingleLeadingSlash(String url) {
+        if (url == null) {
+            return null;
+        }
+        int start = 0;
+        while (start < url.length() && url.charAt(start) == '/') {
+            start++;
+        }
+        if (start == 1) {
+            return url;
+        }
+        return "/" + url.substring(start);
+    }
+}
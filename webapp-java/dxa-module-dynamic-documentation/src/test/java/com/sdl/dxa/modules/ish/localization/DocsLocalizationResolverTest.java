@@ -0,0 +1,60 @@
+package com.sdl.dxa.modules.ish.localization;
+
+import com.sdl.webapp.common.api.localization.Localization;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DocsLocalizationResolverTest {
+
+    private DocsLocalizationResolver resolver;
+
+    @Before
+    public void setUp() {
+        resolver = new DocsLocalizationResolver();
+        resolver.init();
+    }
+
+    @Test
+    public void shouldExtractPublicationIdFromPath() {
+        assertEquals("123", resolver.getPublicationId("/123/456/some-page"));
+        assertEquals("123", resolver.getPublicationId("123"));
+        assertEquals("123", resolver.getPublicationId("/api/toc/123/456"));
+        assertEquals("123", resolver.getPublicationId("/api/binary/123/456/image.png"));
+        assertEquals("123", resolver.getPublicationId("/api/pageIdByReference/123/GUID-1"));
+        assertEquals("123", resolver.getPublicationId("/api/comments/123/456"));
+        assertNull(resolver.getPublicationId("/"));
+        assertNull(resolver.getPublicationId("/publications"));
+        assertNull(resolver.getPublicationId("/toc/api/123"));
+    }
+
+    @Test
+    public void shouldShareLocalizationForAllUrlsOfPublication() throws Exception {
+        //when
+        Localization first = resolver.getLocalization("http://localhost/123/456/page?q=1");
+        Localization second = resolver.getLocalization("http://localhost/api/toc/123?crawler=2");
+
+        //then
+        assertSame(first, second);
+    }
+
+    @Test
+    public void shouldRemoveLocalizationOnRefresh() throws Exception {
+        //given
+        Localization localization = resolver.getLocalization("http://localhost/123/456/page");
+
+        //when
+        boolean refreshed = resolver.refreshLocalization(localization);
+
+        //then
+        assertTrue(refreshed);
+        assertFalse(resolver.refreshLocalization(localization));
+        assertNotSame(localization, resolver.getLocalization("http://localhost/123/456/page"));
+    }
+}
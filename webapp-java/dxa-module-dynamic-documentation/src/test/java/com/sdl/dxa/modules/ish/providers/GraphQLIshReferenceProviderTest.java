@@ -0,0 +1,129 @@
+package com.sdl.dxa.modules.ish.providers;
+
+import com.sdl.dxa.tridion.pcaclient.ApiClientProvider;
+import com.sdl.web.pca.client.ApiClient;
+import com.sdl.web.pca.client.contentmodel.Pagination;
+import com.sdl.web.pca.client.contentmodel.enums.ContentIncludeMode;
+import com.sdl.web.pca.client.contentmodel.generated.CustomMetaEdge;
+import com.sdl.web.pca.client.contentmodel.generated.InputItemFilter;
+import com.sdl.web.pca.client.contentmodel.generated.InputSortParam;
+import com.sdl.web.pca.client.contentmodel.generated.ItemConnection;
+import com.sdl.web.pca.client.contentmodel.generated.ItemEdge;
+import com.sdl.web.pca.client.contentmodel.generated.Page;
+import com.tridion.meta.Item;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.sdl.dxa.modules.ish.providers.IshReferenceProvider.REF_FIELD_NAME;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GraphQLIshReferenceProviderTest {
+    private static final Integer PUB_ID = 10992;
+
+    @Mock
+    private ApiClientProvider pcaClientProvider;
+
+    @Mock
+    private ApiClient client;
+
+    @InjectMocks
+    private GraphQLIshReferenceProvider provider;
+
+    @Before
+    public void setUp() {
+        when(pcaClientProvider.getClient()).thenReturn(client);
+    }
+
+    @Test
+    public void shouldMatchPagesToReferencesWithOneOrFilter() throws Exception {
+        //given
+        ItemConnection batch = connection(page(10, "a"), page(12, "a"));
+        when(client.executeItemQuery(any(InputItemFilter.class), any(InputSortParam.class), any(Pagination.class),
+                any(), any(ContentIncludeMode.class), anyBoolean(), any())).thenReturn(batch);
+
+        //when
+        Map<String, Item> items = provider.getPageIdsByIshLogicalReferences(PUB_ID, Arrays.asList("a", "b", "c", "a"));
+
+        //then
+        assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(items.keySet()));
+        assertEquals(10, items.get("a").getId());
+        assertEquals(0, items.get("b").getId());
+        assertEquals(0, items.get("c").getId());
+
+        ArgumentCaptor<InputItemFilter> filter = ArgumentCaptor.forClass(InputItemFilter.class);
+        verify(client, times(1)).executeItemQuery(filter.capture(), any(InputSortParam.class), any(Pagination.class),
+                any(), any(ContentIncludeMode.class), anyBoolean(), any());
+        assertEquals(Collections.singletonList(PUB_ID), filter.getValue().getPublicationIds());
+        List<String> references = new ArrayList<>();
+        for (InputItemFilter referenceFilter : filter.getValue().getOr()) {
+            assertEquals(REF_FIELD_NAME, referenceFilter.getCustomMeta().getKey());
+            references.add(referenceFilter.getCustomMeta().getValue());
+        }
+        assertEquals(Arrays.asList("a", "b", "c"), references);
+    }
+
+    @Test
+    public void shouldLookUpMissingReferencesOneByOneWhenPageIsFull() throws Exception {
+        //given
+        ItemConnection batch = connection(page(10, "a"), page(12, "a"));
+        ItemConnection single = connection(page(13, "b"));
+        when(client.executeItemQuery(any(InputItemFilter.class), any(InputSortParam.class), any(Pagination.class),
+                any(), any(ContentIncludeMode.class), anyBoolean(), any())).thenReturn(batch, single);
+
+        //when
+        Map<String, Item> items = provider.getPageIdsByIshLogicalReferences(PUB_ID, Arrays.asList("a", "b"));
+
+        //then
+        assertEquals(10, items.get("a").getId());
+        assertEquals(13, items.get("b").getId());
+
+        ArgumentCaptor<InputItemFilter> filter = ArgumentCaptor.forClass(InputItemFilter.class);
+        verify(client, times(2)).executeItemQuery(filter.capture(), any(InputSortParam.class), any(Pagination.class),
+                any(), any(ContentIncludeMode.class), anyBoolean(), any());
+        InputItemFilter singleFilter = filter.getAllValues().get(1);
+        assertEquals("b", singleFilter.getCustomMeta().getValue());
+    }
+
+    private static ItemConnection connection(Page... pages) {
+        List<ItemEdge> edges = new ArrayList<>();
+        for (Page page : pages) {
+            ItemEdge edge = mock(ItemEdge.class);
+            when(edge.getNode()).thenReturn(page);
+            edges.add(edge);
+        }
+        ItemConnection connection = mock(ItemConnection.class);
+        when(connection.getEdges()).thenReturn(edges);
+        return connection;
+    }
+
+    private static Page page(int id, String reference) {
+        CustomMetaEdge meta = mock(CustomMetaEdge.class, RETURNS_DEEP_STUBS);
+        when(meta.getNode().getKey()).thenReturn(REF_FIELD_NAME);
+        when(meta.getNode().getValue()).thenReturn(reference);
+
+        Page page = mock(Page.class, RETURNS_DEEP_STUBS);
+        when(page.getItemId()).thenReturn(id);
+        when(page.getPublicationId()).thenReturn(PUB_ID);
+        when(page.getCustomMetas().getEdges()).thenReturn(Collections.singletonList(meta));
+        return page;
+    }
+}
@@ -12,6 +12,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
@@ -46,6 +49,20 @@ public class ConditionServiceTest {
         assertEquals(expectedJson, conditionService.getConditions(PUBLICATION_ID, any(Localization.class)));
     }
 
+    @Test
+    public void testGetObjectConditions() throws Exception {
+        when(webPublicationMetaFactory.getMeta(PUBLICATION_ID).getCustomMeta()
+                .getFirstValue("conditionsused.generated.value")).thenReturn(CONDITION_USED);
+        when(webPublicationMetaFactory.getMeta(PUBLICATION_ID).getCustomMeta()
+                .getFirstValue("conditionmetadata.generated.value")).thenReturn(CONDITION_DATATYPE);
+
+        Map<String, Map> conditions = conditionService.getObjectConditions(PUBLICATION_ID, null);
+
+        assertEquals(3, conditions.size());
+        assertArrayEquals(new Object[]{"330"}, (Object[]) conditions.get("MODEL").get("values"));
+        assertEquals("Text", conditions.get("MODEL").get("datatype"));
+    }
+
     @Test(expected = NotFoundException.class)
     public void testGetConditionsMetaNotFound() throws Exception {
         when(webPublicationMetaFactory.getMeta(PUBLICATION_ID)).thenReturn(new PublicationMetaImpl());
@@ -1,15 +1,42 @@
 package com.sdl.dxa.modules.ish.services;
 
+import com.sdl.dxa.modules.ish.localization.PublicationRefreshedEvent;
+import com.sdl.dxa.tridion.pcaclient.ApiClientProvider;
+import com.sdl.web.pca.client.ApiClient;
+import com.sdl.web.pca.client.contentmodel.generated.CustomMetaEdge;
+import com.sdl.web.pca.client.contentmodel.generated.Page;
+import com.sdl.webapp.common.api.content.Dxa22ContentProvider;
+import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.api.model.PageModel;
+import com.sdl.webapp.common.api.model.region.RegionModelSetImpl;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class GraphQLPageServiceTest {
+    @Mock
+    private ApiClientProvider clientProvider;
+
+    @Mock
+    private Dxa22ContentProvider contentProvider;
+
     @Spy
+    @InjectMocks
     private  GraphQLPageService service;
 
     private String topicBody =
@@ -44,4 +71,80 @@ public class GraphQLPageServiceTest {
     public void shouldReplaceLinksWithAnchors() {
         assertEquals(expectedBody, service.replaceAnchorInLinks(topicBody));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldQueryCustomMetasOncePerPage() throws Exception {
+        //given
+        Localization localization = mock(Localization.class);
+        when(localization.getId()).thenReturn("1");
+        mockPageMetas();
+
+        Map<String, String> firstMeta = new HashMap<>();
+        Map<String, String> secondMeta = new HashMap<>();
+        PageModel first = mock(PageModel.class);
+        when(first.getRegions()).thenReturn(new RegionModelSetImpl());
+        when(first.getMeta()).thenReturn(firstMeta);
+        PageModel second = mock(PageModel.class);
+        when(second.getRegions()).thenReturn(new RegionModelSetImpl());
+        when(second.getMeta()).thenReturn(secondMeta);
+        when(contentProvider.getPageModel(2, localization)).thenReturn(first, second);
+
+        service.init();
+        try {
+            //when
+            service.getPage(2, localization);
+            service.getPage(2, localization);
+        } finally {
+            service.destroy();
+        }
+
+        //then
+        assertEquals("{}", firstMeta.get("conditionsused.generated.value"));
+        assertEquals("{}", secondMeta.get("conditionsused.generated.value"));
+        verify(clientProvider, times(1)).getClient();
+    }
+
+    @Test
+    public void shouldQueryCustomMetasAgainWhenPublicationIsRefreshed() throws Exception {
+        //given
+        Localization localization = mock(Localization.class);
+        when(localization.getId()).thenReturn("1");
+        mockPageMetas();
+
+        PageModel model = mock(PageModel.class);
+        when(model.getRegions()).thenReturn(new RegionModelSetImpl());
+        when(model.getMeta()).thenReturn(new HashMap<>());
+        when(contentProvider.getPageModel(2, localization)).thenReturn(model);
+
+        service.init();
+        try {
+            service.getPage(2, localization);
+
+            //when
+            service.onPublicationRefreshed(new PublicationRefreshedEvent(this, "10"));
+            service.getPage(2, localization);
+
+            //then
+            verify(clientProvider, times(1)).getClient();
+
+            //when
+            service.onPublicationRefreshed(new PublicationRefreshedEvent(this, "1"));
+            service.getPage(2, localization);
+
+            //then
+            verify(clientProvider, times(2)).getClient();
+        } finally {
+            service.destroy();
+        }
+    }
+
+    private void mockPageMetas() {
+        CustomMetaEdge conditionsUsed = mock(CustomMetaEdge.class, RETURNS_DEEP_STUBS);
+        when(conditionsUsed.getNode().getKey()).thenReturn("conditionsused.generated.value");
+        when(conditionsUsed.getNode().getValue()).thenReturn("{}");
+        Page page = mock(Page.class, RETURNS_DEEP_STUBS);
+        when(page.getCustomMetas().getEdges()).thenReturn(Collections.singletonList(conditionsUsed));
+        ApiClient client = mock(ApiClient.class, invocation -> Page.class.equals(invocation.getMethod().getReturnType()) ? page : null);
+        when(clientProvider.getClient()).thenReturn(client);
+    }
+}
@@ -0,0 +1,231 @@
+package com.sdl.dxa.modules.ish.services;
+
+import com.sdl.dxa.modules.ish.exception.IshServiceException;
+import com.sdl.dxa.modules.ish.model.Publication;
+import com.sdl.dxa.tridion.pcaclient.ApiClientProvider;
+import com.sdl.web.pca.client.ApiClient;
+import com.sdl.web.pca.client.contentmodel.Pagination;
+import com.sdl.web.pca.client.contentmodel.enums.ContentNamespace;
+import com.sdl.web.pca.client.contentmodel.generated.CustomMeta;
+import com.sdl.web.pca.client.contentmodel.generated.CustomMetaConnection;
+import com.sdl.web.pca.client.contentmodel.generated.CustomMetaEdge;
+import com.sdl.web.pca.client.contentmodel.generated.PublicationConnection;
+import com.sdl.web.pca.client.contentmodel.generated.PublicationEdge;
+import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.controller.exception.NotFoundException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GraphQLPublicationServiceTest {
+
+    @Mock
+    private ApiClientProvider apiClientProvider;
+
+    @Mock
+    private ApiClient apiClient;
+
+    @Mock
+    private Localization localization;
+
+    @InjectMocks
+    private GraphQLPublicationService service;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(service, "publicationListPageSize", 2);
+        when(apiClientProvider.getClient()).thenReturn(apiClient);
+        when(localization.getCmUriScheme()).thenReturn("ish");
+    }
+
+    @After
+    public void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    public void shouldPageThroughPublicationsAndCacheTheList() {
+        //given
+        service.init();
+        PublicationConnection firstPage = connection(edge(1, true, "c1"), edge(2, false, "c2"));
+        PublicationConnection lastPage = connection(edge(3, true, "c3"));
+        when(apiClient.getPublications(eq(ContentNamespace.Docs), any(Pagination.class), any(), anyString(), any()))
+                .thenReturn(firstPage, lastPage);
+
+        //when
+        List<Publication> publications = service.getPublicationList(localization);
+        List<Publication> cached = service.getPublicationList(localization);
+
+        //then
+        assertEquals(Arrays.asList("1", "3"), ids(publications));
+        assertEquals(publications, cached);
+        verify(apiClient, times(2)).getPublications(eq(ContentNamespace.Docs), any(Pagination.class), any(), anyString(), any());
+    }
+
+    @Test
+    public void shouldFailColdStatusLookupWithoutWaitingForRetries() {
+        //given
+        ReflectionTestUtils.setField(service, "statusRetryBackoffMillis", 5000L);
+        service.init();
+        when(apiClient.getPublication(any(ContentNamespace.class), anyInt(), anyString(), any()))
+                .thenThrow(new RuntimeException("transient"));
+
+        //when
+        long start = System.currentTimeMillis();
+        try {
+            service.checkPublicationOnline(1, localization);
+            fail("Failed lookup is expected to be a service error");
+        } catch (IshServiceException e) {
+            //then
+            assertTrue(System.currentTimeMillis() - start < 1000);
+            verify(apiClient, times(1)).getPublication(eq(ContentNamespace.Docs), eq(1), anyString(), any());
+        }
+    }
+
+    @Test
+    public void shouldRetryStatusRefreshInBackground() throws InterruptedException {
+        //given
+        ReflectionTestUtils.setField(service, "statusTtlSeconds", 1);
+        ReflectionTestUtils.setField(service, "statusRetryBackoffMillis", 1L);
+        service.init();
+        com.sdl.web.pca.client.contentmodel.generated.Publication online = publication(1, true);
+        when(apiClient.getPublication(eq(ContentNamespace.Docs), eq(1), anyString(), any()))
+                .thenReturn(online)
+                .thenThrow(new RuntimeException("transient"))
+                .thenReturn(online);
+        service.checkPublicationOnline(1, localization);
+        Thread.sleep(1100);
+
+        //when
+        service.checkPublicationOnline(1, localization);
+
+        //then
+        verify(apiClient, timeout(1000).times(3)).getPublication(eq(ContentNamespace.Docs), eq(1), anyString(), any());
+    }
+
+    @Test
+    public void shouldServeStaleStatusWhileRefreshing() throws InterruptedException {
+        //given
+        ReflectionTestUtils.setField(service, "statusTtlSeconds", 1);
+        service.init();
+        com.sdl.web.pca.client.contentmodel.generated.Publication online = publication(1, true);
+        com.sdl.web.pca.client.contentmodel.generated.Publication offline = publication(1, false);
+        when(apiClient.getPublication(eq(ContentNamespace.Docs), eq(1), anyString(), any()))
+                .thenReturn(online, offline);
+        service.checkPublicationOnline(1, localization);
+        Thread.sleep(1100);
+
+        //when
+        service.checkPublicationOnline(1, localization);
+
+        //then
+        verify(apiClient, timeout(1000).times(2)).getPublication(eq(ContentNamespace.Docs), eq(1), anyString(), any());
+    }
+
+    @Test
+    public void shouldReportOfflinePublicationAsNotFound() {
+        //given
+        service.init();
+        com.sdl.web.pca.client.contentmodel.generated.Publication offline = publication(1, false);
+        when(apiClient.getPublication(eq(ContentNamespace.Docs), eq(1), anyString(), any())).thenReturn(offline);
+
+        //when
+        try {
+            service.checkPublicationOnline(1, localization);
+            fail("Offline publication is expected to be not found");
+        } catch (NotFoundException e) {
+            //then
+            verify(apiClient).getPublication(eq(ContentNamespace.Docs), eq(1), anyString(), any());
+        }
+    }
+
+    @Test
+    public void shouldFailWithServiceErrorAndBackOffWhenLookupsFail() {
+        //given
+        ReflectionTestUtils.setField(service, "statusRetryBackoffMillis", 500L);
+        service.init();
+        when(apiClient.getPublication(any(ContentNamespace.class), anyInt(), anyString(), any()))
+                .thenThrow(new RuntimeException("unavailable"));
+
+        //when
+        try {
+            service.checkPublicationOnline(1, localization);
+            fail("Failed lookup is expected to be a service error");
+        } catch (IshServiceException e) {
+            //then
+            verify(apiClient, times(1)).getPublication(eq(ContentNamespace.Docs), eq(1), anyString(), any());
+        }
+
+        //when
+        try {
+            service.checkPublicationOnline(1, localization);
+            fail("Lookup during the backoff is expected to be a service error");
+        } catch (IshServiceException e) {
+            //then
+            verify(apiClient, times(1)).getPublication(eq(ContentNamespace.Docs), eq(1), anyString(), any());
+        }
+    }
+
+    private static List<String> ids(List<Publication> publications) {
+        List<String> ids = new ArrayList<>();
+        for (Publication publication : publications) {
+            ids.add(publication.getId());
+        }
+        return ids;
+    }
+
+    private static PublicationConnection connection(PublicationEdge... edges) {
+        PublicationConnection connection = mock(PublicationConnection.class);
+        when(connection.getEdges()).thenReturn(Arrays.asList(edges));
+        return connection;
+    }
+
+    private static PublicationEdge edge(int id, boolean online, String cursor) {
+        com.sdl.web.pca.client.contentmodel.generated.Publication publication = publication(id, online);
+
+        PublicationEdge edge = mock(PublicationEdge.class);
+        when(edge.getNode()).thenReturn(publication);
+        when(edge.getCursor()).thenReturn(cursor);
+        return edge;
+    }
+
+    private static com.sdl.web.pca.client.contentmodel.generated.Publication publication(int id, boolean online) {
+        CustomMeta status = mock(CustomMeta.class);
+        when(status.getKey()).thenReturn("FISHDITADLVRREMOTESTATUS.lng.element");
+        when(status.getValue()).thenReturn(online ? "VDITADLVRREMOTESTATUSONLINE" : "VDITADLVRREMOTESTATUSOFFLINE");
+        CustomMetaEdge statusEdge = mock(CustomMetaEdge.class);
+        when(statusEdge.getNode()).thenReturn(status);
+        CustomMetaConnection metas = mock(CustomMetaConnection.class);
+        when(metas.getEdges()).thenReturn(Collections.singletonList(statusEdge));
+
+        com.sdl.web.pca.client.contentmodel.generated.Publication publication =
+                mock(com.sdl.web.pca.client.contentmodel.generated.Publication.class);
+        when(publication.getItemId()).thenReturn(id);
+        when(publication.getCustomMetas()).thenReturn(metas);
+        return publication;
+    }
+}
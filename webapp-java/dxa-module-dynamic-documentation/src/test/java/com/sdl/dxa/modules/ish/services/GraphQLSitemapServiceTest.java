@@ -0,0 +1,86 @@
+package com.sdl.dxa.modules.ish.services;
+
+import com.sdl.dxa.api.datamodel.model.SitemapItemModelData;
+import com.sdl.dxa.common.dto.SitemapRequestDto;
+import com.sdl.dxa.modules.ish.localization.PublicationRefreshedEvent;
+import com.sdl.dxa.modules.ish.model.Publication;
+import com.sdl.dxa.tridion.navigation.dynamic.OnDemandNavigationModelProvider;
+import com.sdl.webapp.common.api.localization.Localization;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GraphQLSitemapServiceTest {
+    private static final String CONTEXT_PATH = "http://docs.sdl.com/";
+
+    @Mock
+    private OnDemandNavigationModelProvider onDemandNavigationModelProvider;
+
+    @Mock
+    private PublicationService publicationService;
+
+    @Mock
+    private Localization localization;
+
+    @InjectMocks
+    private GraphQLSitemapService service;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(service, "sitemapParallelism", 2);
+        ReflectionTestUtils.setField(service, "fragmentMaxAgeMinutes", 60);
+        ReflectionTestUtils.setField(service, "fragmentCacheSize", 100);
+        service.init();
+
+        when(localization.getCmUriScheme()).thenReturn("ish");
+        when(publicationService.getPublicationList(localization)).thenReturn(Arrays.asList(publication("1"), publication("2")));
+        Collection<SitemapItemModelData> empty = Collections.emptyList();
+        when(onDemandNavigationModelProvider.getNavigationSubtree(any(SitemapRequestDto.class))).thenReturn(Optional.of(empty));
+    }
+
+    @After
+    public void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    public void shouldReuseFragmentsUntilPublicationIsRefreshed() {
+        //given
+        service.createSitemap(CONTEXT_PATH, localization);
+
+        //when
+        service.createSitemap(CONTEXT_PATH, localization);
+
+        //then
+        verify(onDemandNavigationModelProvider, times(2)).getNavigationSubtree(any(SitemapRequestDto.class));
+
+        //when
+        service.onPublicationRefreshed(new PublicationRefreshedEvent(this, "1"));
+        service.createSitemap(CONTEXT_PATH, localization);
+
+        //then
+        verify(onDemandNavigationModelProvider, times(3)).getNavigationSubtree(any(SitemapRequestDto.class));
+    }
+
+    private static Publication publication(String id) {
+        Publication publication = new Publication();
+        publication.setId(id);
+        return publication;
+    }
+}
@@ -0,0 +1,103 @@
+package com.sdl.dxa.modules.ish.services;
+
+import com.google.common.collect.ImmutableMap;
+import com.sdl.dxa.modules.ish.localization.PublicationRefreshedEvent;
+import com.sdl.dxa.modules.ish.services.MergedConditionsService.MergedConditions;
+import com.sdl.webapp.common.api.localization.Localization;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MergedConditionsServiceTest {
+
+    @Mock
+    private ConditionService conditionService;
+
+    @Mock
+    private Localization localization;
+
+    @InjectMocks
+    private MergedConditionsService service;
+
+    @Before
+    public void setUp() throws Exception {
+        service.init();
+        Map<String, Map> systemConditions = ImmutableMap.of(
+                "Audience", ImmutableMap.of("values", new Object[]{"Admin", "User"}),
+                "Platform", ImmutableMap.of("values", new Object[]{"Windows"}));
+        when(conditionService.getObjectConditions(1, localization)).thenReturn(systemConditions);
+        when(conditionService.getObjectConditions(2, localization)).thenReturn(systemConditions);
+    }
+
+    @Test
+    public void shouldMergeUserConditionsOverPublicationConditions() throws Exception {
+        //when
+        MergedConditions merged = service.getMergedConditions(1, "{\"userConditions\": {\"Audience\": [\"Admin\"]}}", localization);
+
+        //then
+        assertEquals(Collections.singletonList("Admin"), merged.getConditions().get("Audience"));
+        assertEquals(Collections.singletonList("Windows"), merged.getConditions().get("Platform"));
+    }
+
+    @Test
+    public void shouldGiveEquivalentConditionsTheSameKey() throws Exception {
+        //when
+        MergedConditions first = service.getMergedConditions(1,
+                "{\"userConditions\": {\"Audience\": [\"Admin\"], \"Platform\": \"Linux\"}}", localization);
+        MergedConditions second = service.getMergedConditions(1,
+                "{'userConditions':{'Platform':['Linux'],'Audience':['Admin']}}", localization);
+        MergedConditions other = service.getMergedConditions(1,
+                "{\"userConditions\": {\"Audience\": [\"User\"]}}", localization);
+
+        //then
+        assertEquals(first.getKey(), second.getKey());
+        assertSame(first.getConditions(), second.getConditions());
+        assertNotEquals(first.getKey(), other.getKey());
+        assertEquals(Arrays.asList("Linux"), first.getConditions().get("Platform"));
+        verify(conditionService, times(2)).getObjectConditions(1, localization);
+    }
+
+    @Test
+    public void shouldMergeAgainWhenPublicationIsRefreshed() throws Exception {
+        //given
+        String conditions = "{\"userConditions\": {\"Audience\": [\"Admin\"]}}";
+        service.getMergedConditions(1, conditions, localization);
+        service.getMergedConditions(2, conditions, localization);
+
+        //when
+        service.onPublicationRefreshed(new PublicationRefreshedEvent(this, "1"));
+        service.getMergedConditions(1, conditions, localization);
+        service.getMergedConditions(2, conditions, localization);
+
+        //then
+        verify(conditionService, times(2)).getObjectConditions(1, localization);
+        verify(conditionService, times(1)).getObjectConditions(2, localization);
+    }
+
+    @Test
+    public void shouldNotMergeWithoutConditions() throws Exception {
+        //when
+        MergedConditions merged = service.getMergedConditions(1, "", localization);
+
+        //then
+        assertEquals("", merged.getKey());
+        assertNull(merged.getConditions());
+        verify(conditionService, times(0)).getObjectConditions(1, localization);
+    }
+}
@@ -0,0 +1,73 @@
+package com.sdl.dxa.modules.ish.services;
+
+import com.sdl.dxa.modules.ish.services.SitemapArtifactStore.SitemapArtifact;
+import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.impl.localization.DocsLocalization;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for SitemapArtifactStore.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SitemapArtifactStoreTest {
+    private static final String CONTEXT_PATH = "http://docs.sdl.com/";
+    private static final String SITEMAP = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<urlset/>";
+
+    @Mock
+    private SitemapService sitemapService;
+
+    @InjectMocks
+    private SitemapArtifactStore store;
+
+    @Before
+    public void setUp() {
+        doAnswer(invocation -> {
+            ((Writer) invocation.getArguments()[2]).write(SITEMAP);
+            return null;
+        }).when(sitemapService).writeSitemap(anyString(), any(Localization.class), any(Writer.class));
+        store.init();
+    }
+
+    @After
+    public void tearDown() {
+        store.destroy();
+    }
+
+    @Test
+    public void shouldGenerateSitemapOnceAndKeepIt() throws Exception {
+        //given
+        DocsLocalization localization = new DocsLocalization();
+
+        //when
+        SitemapArtifact first = store.getSitemap(CONTEXT_PATH, localization);
+        SitemapArtifact second = store.getSitemap(CONTEXT_PATH, localization);
+
+        //then
+        assertSame(first, second);
+        assertEquals(SITEMAP, new String(first.getXml(), StandardCharsets.UTF_8));
+        assertEquals(SITEMAP, IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(first.getGzip())), StandardCharsets.UTF_8));
+        assertNotEquals(first.getETag(false), first.getETag(true));
+        verify(sitemapService, times(1)).writeSitemap(anyString(), any(Localization.class), any(Writer.class));
+    }
+}
@@ -15,6 +15,8 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -23,7 +25,10 @@ import java.util.Set;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -66,4 +71,66 @@ public class TocServiceTest {
                 webRequestContext);
         assertEquals(2, result.size());
     }
+
+    @Test
+    public void testGetTocWithAncestorsLoadsSiblingsOfEveryLevel() throws ContentProviderException {
+        final WebRequestContext webRequestContext = mock(WebRequestContext.class);
+        when(webRequestContext.getLocalization()).thenReturn(new DocsLocalization());
+
+        SitemapItem root = createItem("t1-k1");
+        SitemapItem middle = createItem("t1-k2");
+        SitemapItem leaf = createItem("t1-k3");
+        root.addItem(middle);
+        middle.addItem(leaf);
+
+        when(ishNavigationProvider.getNavigationSubtree(eq("t1-k3"), any(NavigationFilter.class),
+                any(Localization.class))).thenReturn(Collections.singletonList(root));
+        when(ishNavigationProvider.getNavigationSubtree(eq("t1-k2"), any(NavigationFilter.class),
+                any(Localization.class))).thenReturn(Arrays.asList(createItem("t1-k3"), createItem("t1-k4")));
+        when(ishNavigationProvider.getNavigationSubtree(eq("t1-k1"), any(NavigationFilter.class),
+                any(Localization.class))).thenReturn(Arrays.asList(createItem("t1-k2"), createItem("t1-k5")));
+
+        Collection<SitemapItem> result = tocService.getToc(1123123, "t1-k3", true, 1, "", webRequestContext);
+
+        assertEquals(1, result.size());
+        SitemapItem resultRoot = result.iterator().next();
+        assertEquals(2, resultRoot.getItems().size());
+        SitemapItem resultMiddle = resultRoot.getItems().stream()
+                .filter(item -> "t1-k2".equals(item.getId()))
+                .findFirst()
+                .get();
+        assertEquals(2, resultMiddle.getItems().size());
+        verify(ishNavigationProvider, times(3)).getNavigationSubtree(anyString(), any(NavigationFilter.class),
+                any(Localization.class));
+    }
+
+    @Test
+    public void testGetTocRemovesPageNodesAndKeepsOrder() throws ContentProviderException {
+        final WebRequestContext webRequestContext = mock(WebRequestContext.class);
+        when(webRequestContext.getLocalization()).thenReturn(new DocsLocalization());
+
+        SitemapItem first = createItem("t1-k2");
+        SitemapItem page = createItem("t1-p3");
+        page.setType("Page");
+        SitemapItem second = createItem("t1-k10");
+        first.addItem(createItem("t1-k4"));
+        SitemapItem nestedPage = createItem("t1-p5");
+        nestedPage.setType("Page");
+        first.addItem(nestedPage);
+
+        when(ishNavigationProvider.getNavigationSubtree(anyString(), any(NavigationFilter.class),
+                any(Localization.class))).thenReturn(Arrays.asList(first, page, second));
+
+        Collection<SitemapItem> result = tocService.getToc(1123123, "3333", false, 1, "", webRequestContext);
+
+        assertEquals(Arrays.asList(first, second), new ArrayList<>(result));
+        assertEquals(1, first.getItems().size());
+        assertEquals("t1-k4", first.getItems().iterator().next().getId());
+    }
+
+    private static SitemapItem createItem(String id) {
+        SitemapItem item = new SitemapItem();
+        item.setId(id);
+        return item;
+    }
 }
@@ -2,6 +2,7 @@ package com.sdl.dxa.modules.ish.services;
 
 import com.sdl.dxa.modules.ish.providers.IshReferenceProvider;
 import com.sdl.webapp.common.api.content.ContentProviderException;
+import com.tridion.meta.Item;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -9,8 +10,19 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 /**
  * Test class for ContentService.
@@ -34,4 +46,29 @@ public class TridionDocsContentServiceTest {
         verify(provider).getPageIdByIshLogicalReference(PUB_ID, LOGICAL_REF_VALUE);
         verifyNoMoreInteractions(contentService, provider);
     }
+
+    @Test
+    public void getPageIdsByIshLogicalReferencesResolvesMissingReferencesOnce() throws ContentProviderException {
+        //given
+        contentService.init();
+        Item first = mock(Item.class);
+        Item second = mock(Item.class);
+        Map<String, Item> resolved = new HashMap<>();
+        resolved.put("ref1", first);
+        resolved.put("ref2", second);
+        when(provider.getPageIdsByIshLogicalReferences(PUB_ID, Arrays.asList("ref1", "ref2"))).thenReturn(resolved);
+
+        //when
+        Map<String, Item> result = contentService.getPageIdsByIshLogicalReferences(PUB_ID, Arrays.asList("ref1", "ref2", "ref1"));
+        Map<String, Item> cached = contentService.getPageIdsByIshLogicalReferences(PUB_ID, Collections.singletonList("ref2"));
+        Item single = contentService.getPageIdByIshLogicalReference(PUB_ID, "ref1");
+
+        //then
+        assertEquals(2, result.size());
+        assertSame(first, result.get("ref1"));
+        assertSame(second, cached.get("ref2"));
+        assertSame(first, single);
+        verify(provider, times(1)).getPageIdsByIshLogicalReferences(PUB_ID, Arrays.asList("ref1", "ref2"));
+        verify(provider, never()).getPageIdByIshLogicalReference(PUB_ID, "ref1");
+    }
 }
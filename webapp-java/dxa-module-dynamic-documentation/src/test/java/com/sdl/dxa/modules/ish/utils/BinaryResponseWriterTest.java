@@ -0,0 +1,136 @@
+package com.sdl.dxa.modules.ish.utils;
+
+import com.sdl.webapp.common.api.content.StaticContentItem;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * BinaryResponseWriter test class.
+ */
+public class BinaryResponseWriterTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    private static final long LAST_MODIFIED = 1_500_000_000_000L;
+
+    private StaticContentItem content;
+
+    private String eTag;
+
+    @Before
+    public void setUp() throws Exception {
+        content = mock(StaticContentItem.class);
+        when(content.getLastModified()).thenReturn(LAST_MODIFIED);
+        when(content.getContent()).thenReturn(new ByteArrayInputStream(CONTENT));
+        eTag = BinaryResponseWriter.getETag(1, 2, content);
+    }
+
+    @Test
+    public void shouldWriteFullContentWithValidators() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/binary/1/2/image");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        BinaryResponseWriter.write(request, response, content, "image/png", eTag, 4);
+
+        //then
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals("10", response.getHeader("Content-Length"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals("\"1-2-" + LAST_MODIFIED + "\"", response.getHeader("ETag"));
+        assertEquals("image/png", response.getContentType());
+    }
+
+    @Test
+    public void shouldAnswerNotModifiedWithoutReadingContent() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/binary/1/2/image");
+        request.addHeader("If-None-Match", eTag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        BinaryResponseWriter.write(request, response, content, "image/png", eTag, 4);
+
+        //then
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        verify(content, never()).getContent();
+    }
+
+    @Test
+    public void shouldServeSingleRange() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/binary/1/2/video");
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        BinaryResponseWriter.write(request, response, content, "video/mp4", eTag, 4);
+
+        //then
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        assertEquals("4", response.getHeader("Content-Length"));
+    }
+
+    @Test
+    public void shouldServeSuffixRange() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/binary/1/2/video");
+        request.addHeader("Range", "bytes=-3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        BinaryResponseWriter.write(request, response, content, "video/mp4", eTag, 4);
+
+        //then
+        assertEquals(206, response.getStatus());
+        assertEquals("789", response.getContentAsString());
+        assertEquals("bytes 7-9/10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    public void shouldRejectUnsatisfiableRange() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/binary/1/2/video");
+        request.addHeader("Range", "bytes=20-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        BinaryResponseWriter.write(request, response, content, "video/mp4", eTag, 4);
+
+        //then
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    public void shouldIgnoreRangeForOutdatedIfRange() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/binary/1/2/video");
+        request.addHeader("Range", "bytes=2-5");
+        request.addHeader("If-Range", "\"1-2-1\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        BinaryResponseWriter.write(request, response, content, "video/mp4", eTag, 4);
+
+        //then
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+    }
+}
@@ -0,0 +1,41 @@
+package com.sdl.dxa.modules.ish.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * TopicBodyRewriter test class.
+ */
+public class TopicBodyRewriterTest {
+
+    @Test
+    public void shouldReplaceLinksToTopicsWithAnchors() {
+        String html = "<p><a class=\"xref\" href=\"/1/2/pub/topic/anchor\">a</a>" +
+                "<a href='http://host/1/2/pub/topic/other?q=1'>b</a>" +
+                "<img src=\"/binary/1/3/image\"/>" +
+                "<a href=\"/1/2/pub/topic\">c</a></p>";
+
+        String result = TopicBodyRewriter.replaceAnchors(html);
+
+        assertEquals("<p><a class=\"xref\" href=\"#anchor\">a</a>" +
+                "<a href='#other'>b</a>" +
+                "<img src=\"/binary/1/3/image\"/>" +
+                "<a href=\"/1/2/pub/topic\">c</a></p>", result);
+    }
+
+    @Test
+    public void shouldDecodeEscapedAnchors() {
+        assertEquals("<a href=\"#an chor\">a</a>",
+                TopicBodyRewriter.replaceAnchors("<a href=\"/1/2/pub/topic/an%20chor\">a</a>"));
+    }
+
+    @Test
+    public void shouldLeaveOtherLinksUntouched() {
+        String html = "<a href=\"mailto:someone@sdl.com\">mail</a><a href=\"/x/2/pub/topic/anchor\">x</a>" +
+                "<!-- <a href=\"/1/2/pub/topic/anchor\"> --><p>href=\"/1/2/pub/topic/anchor\"</p>";
+
+        assertSame(html, TopicBodyRewriter.replaceAnchors(html));
+    }
+}
@@ -0,0 +1,28 @@
+package com.sdl.dxa.modules.ish.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * UrlUtil test class.
+ */
+public class UrlUtilTest {
+
+    @Test
+    public void shouldReplaceLeadingSlashesBySingleOne() {
+        assertEquals("/1/2/page", UrlUtil.withSingleLeadingSlash("1/2/page"));
+        assertEquals("/1/2/page", UrlUtil.withSingleLeadingSlash("///1/2/page"));
+        assertEquals("/", UrlUtil.withSingleLeadingSlash(""));
+        assertEquals("/", UrlUtil.withSingleLeadingSlash("//"));
+        assertNull(UrlUtil.withSingleLeadingSlash(null));
+    }
+
+    @Test
+    public void shouldKeepNormalizedUrl() {
+        String url = "/1/2/page//sub";
+        assertSame(url, UrlUtil.withSingleLeadingSlash(url));
+    }
+}
@@ -1,5 +1,6 @@
 package com.sdl.dxa.modules.search.provider.implementation;
 
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.services.cloudsearchdomain.AmazonCloudSearchDomainClient;
 import com.amazonaws.services.cloudsearchdomain.model.Hit;
@@ -11,13 +12,17 @@ import com.sdl.webapp.common.api.localization.Localization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
@@ -56,9 +61,20 @@ public class AwsCloudSearchProvider extends AbstractSearchProvider {
             "  ]\n" +
             "}";
 
+    private final ConcurrentMap<String, AmazonCloudSearchDomainClient> clients = new ConcurrentHashMap<>();
+
     @Autowired
     private AWSCredentials awsCredentials;
 
+    @Value("${dxa.modules.search.aws.maxConnections:50}")
+    private int maxConnections = 50;
+
+    @Value("${dxa.modules.search.aws.connectionTimeout:5000}")
+    private int connectionTimeout = 5000;
+
+    @Value("${dxa.modules.search.aws.socketTimeout:30000}")
+    private int socketTimeout = 30000;
+
     private static void processResults(SearchQuery searchQuery, SearchResult result) {
         List<Hit> list = result.getHits().getHit();
         List<SearchItem> items = new ArrayList<>(list.size());
@@ -99,12 +115,28 @@ public class AwsCloudSearchProvider extends AbstractSearchProvider {
     @Override
     public void executeQuery(SearchQuery searchQuery, Localization localization) {
         SearchRequest request = buildRequest(searchQuery, localization);
-        processResults(searchQuery, getClient(localization).search(request));
+        processResults(searchQuery, getClient(getServiceUrl(localization)).search(request));
+    }
+
+    /**
+     * Returns the shared client for the given endpoint. Clients are thread-safe and keep their own connection pool,
+     * which is sized by {@code dxa.modules.search.aws.maxConnections}.
+     */
+    AmazonCloudSearchDomainClient getClient(String serviceUrl) {
+        return clients.computeIfAbsent(serviceUrl, url -> {
+            ClientConfiguration configuration = new ClientConfiguration()
+                    .withMaxConnections(maxConnections)
+                    .withConnectionTimeout(connectionTimeout)
+                    .withSocketTimeout(socketTimeout);
+            AmazonCloudSearchDomainClient client = new AmazonCloudSearchDomainClient(awsCredentials, configuration);
+            client.setEndpoint(url);
+            return client;
+        });
     }
 
-    private AmazonCloudSearchDomainClient getClient(Localization localization) {
-        AmazonCloudSearchDomainClient client = new AmazonCloudSearchDomainClient(awsCredentials);
-        client.setEndpoint(getServiceUrl(localization));
-        return client;
+    @PreDestroy
+    public void destroy() {
+        clients.values().forEach(AmazonCloudSearchDomainClient::shutdown);
+        clients.clear();
     }
 }
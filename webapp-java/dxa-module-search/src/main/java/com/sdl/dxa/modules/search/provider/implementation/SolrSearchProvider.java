@@ -6,17 +6,24 @@ import com.sdl.webapp.common.api.localization.Localization;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.solr.client.solrj.impl.HttpClientUtil;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
 import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.params.ModifiableSolrParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Component
 @Primary
@@ -25,6 +32,22 @@ public class SolrSearchProvider extends AbstractSearchProvider {
 
     private static final Logger LOG = LoggerFactory.getLogger(SolrSearchProvider.class);
 
+    private final ConcurrentMap<String, SolrClient> clients = new ConcurrentHashMap<>();
+
+    private CloseableHttpClient httpClient;
+
+    @Value("${dxa.modules.search.solr.maxConnections:128}")
+    private int maxConnections = 128;
+
+    @Value("${dxa.modules.search.solr.maxConnectionsPerHost:32}")
+    private int maxConnectionsPerHost = 32;
+
+    @Value("${dxa.modules.search.solr.connectionTimeout:5000}")
+    private int connectionTimeout = 5000;
+
+    @Value("${dxa.modules.search.solr.socketTimeout:30000}")
+    private int socketTimeout = 30000;
+
     private static void processResults(SearchQuery searchQuery, QueryResponse response) {
         List<SearchItem> items = response.getBeans(SearchItem.class);
         searchQuery.setResults(items);
@@ -59,8 +82,44 @@ public class SolrSearchProvider extends AbstractSearchProvider {
                     .setParam("hl.simple.post", "*");
     }
 
-    private static SolrClient getClient(Localization localization) {
-        return new HttpSolrClient(getServiceUrl(localization));
+    /**
+     * Returns the shared client for the given endpoint. Clients are thread-safe and share one pooled HTTP client,
+     * so connections are reused across queries and localizations.
+     */
+    SolrClient getClient(String serviceUrl) {
+        return clients.computeIfAbsent(serviceUrl, url -> new HttpSolrClient(url, getHttpClient()));
+    }
+
+    private synchronized CloseableHttpClient getHttpClient() {
+        if (httpClient == null) {
+            ModifiableSolrParams params = new ModifiableSolrParams();
+            params.set(HttpClientUtil.PROP_MAX_CONNECTIONS, maxConnections);
+            params.set(HttpClientUtil.PROP_MAX_CONNECTIONS_PER_HOST, maxConnectionsPerHost);
+            params.set(HttpClientUtil.PROP_CONNECTION_TIMEOUT, connectionTimeout);
+            params.set(HttpClientUtil.PROP_SO_TIMEOUT, socketTimeout);
+            httpClient = HttpClientUtil.createClient(params);
+        }
+        return httpClient;
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        for (SolrClient client : clients.values()) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                LOG.warn("Unable to close SOLR client", e);
+            }
+        }
+        clients.clear();
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                LOG.warn("Unable to close SOLR HTTP client", e);
+            }
+            httpClient = null;
+        }
     }
 
     @Override
@@ -69,7 +128,7 @@ public class SolrSearchProvider extends AbstractSearchProvider {
 
         QueryResponse response;
         try {
-            response = getClient(localization).query(query);
+            response = getClient(getServiceUrl(localization)).query(query);
         } catch (SolrServerException | IOException e) {
             LOG.error("Something went wrong during querying SOLR instance, so no results", e);
             return;
@@ -0,0 +1,50 @@
+package com.sdl.dxa.modules.search.provider.implementation;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class SolrSearchProviderTest {
+
+    private SolrSearchProvider provider = new SolrSearchProvider();
+
+    @After
+    public void tearDown() {
+        provider.destroy();
+    }
+
+    @Test
+    public void shouldReuseClientForSameEndpoint() {
+        //when
+        SolrClient first = provider.getClient("http://localhost:8983/solr/staging");
+        SolrClient second = provider.getClient("http://localhost:8983/solr/staging");
+
+        //then
+        assertSame(first, second);
+    }
+
+    @Test
+    public void shouldUseOwnClientPerEndpoint() {
+        //when
+        SolrClient staging = provider.getClient("http://localhost:8983/solr/staging");
+        SolrClient live = provider.getClient("http://localhost:8983/solr/live");
+
+        //then
+        assertNotSame(staging, live);
+    }
+
+    @Test
+    public void shouldCreateNewClientAfterDestroy() {
+        //given
+        SolrClient client = provider.getClient("http://localhost:8983/solr/staging");
+
+        //when
+        provider.destroy();
+
+        //then
+        assertNotSame(client, provider.getClient("http://localhost:8983/solr/staging"));
+    }
+}
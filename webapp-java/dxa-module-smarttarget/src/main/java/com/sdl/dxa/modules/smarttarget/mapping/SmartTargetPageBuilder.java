@@ -1,6 +1,7 @@
 package com.sdl.dxa.modules.smarttarget.mapping;
 
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sdl.dxa.api.datamodel.model.ContentModelData;
 import com.sdl.dxa.api.datamodel.model.PageModelData;
 import com.sdl.dxa.api.datamodel.model.RegionModelData;
@@ -11,10 +12,13 @@ import com.sdl.dxa.modules.smarttarget.model.entity.SmartTargetPromotion;
 import com.sdl.dxa.modules.smarttarget.model.entity.SmartTargetRegion;
 import com.sdl.dxa.tridion.mapping.PageModelBuilder;
 import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.content.ContentProvider;
 import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.api.model.EntityModel;
 import com.sdl.webapp.common.api.model.PageModel;
 import com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData;
 import com.sdl.webapp.common.api.model.mvcdata.MvcDataCreator;
+import com.sdl.webapp.common.exceptions.DxaException;
 import com.sdl.webapp.common.util.TcmUtils;
 import com.tridion.ambientdata.AmbientDataContext;
 import com.tridion.ambientdata.claimstore.ClaimStore;
@@ -41,12 +45,23 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Component
@@ -60,10 +75,37 @@ public class SmartTargetPageBuilder implements Ordered, PageModelBuilder {
 
     private final WebRequestContext webRequestContext;
 
+    private final ContentProvider contentProvider;
+
+    @Value("${dxa.modules.smarttarget.entities.parallelism:4}")
+    private int entitiesParallelism;
+
+    @Value("${dxa.modules.smarttarget.entities.timeout.ms:5000}")
+    private long entitiesTimeoutMs = 5000;
+
+    private ExecutorService entitiesExecutor;
+
     @Autowired
-    public SmartTargetPageBuilder(HttpServletRequest httpServletRequest, WebRequestContext webRequestContext) {
+    public SmartTargetPageBuilder(HttpServletRequest httpServletRequest, WebRequestContext webRequestContext,
+                                  ContentProvider contentProvider) {
         this.httpServletRequest = httpServletRequest;
         this.webRequestContext = webRequestContext;
+        this.contentProvider = contentProvider;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (entitiesParallelism > 1) {
+            entitiesExecutor = Executors.newFixedThreadPool(entitiesParallelism,
+                    new ThreadFactoryBuilder().setNameFormat("smarttarget-entities-%d").setDaemon(true).build());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (entitiesExecutor != null) {
+            entitiesExecutor.shutdownNow();
+        }
     }
 
     private static void setMaxItems(String maxItems, SmartTargetRegion regionModel) {
@@ -186,6 +228,8 @@ public class SmartTargetPageBuilder implements Ordered, PageModelBuilder {
 
         processQueryAndPromotions(localization, stPageModel, promotionViewName);
 
+        resolveItemEntities(localization, stPageModel);
+
         return stPageModel;
     }
 
@@ -326,6 +370,85 @@ public class SmartTargetPageBuilder implements Ordered, PageModelBuilder {
         stPageModel.setNewExperimentCookies(newExperimentCookies);
     }
 
+    /**
+     * Resolves the entities of all promotion items of the page in one go before the page is rendered,
+     * instead of loading them one by one while rendering. Lookups which don't finish in time are cancelled,
+     * and like lookups that failed they leave their items unresolved, so these are loaded lazily on the request
+     * thread by {@link SmartTargetItem#getEntity()}.
+     */
+    void resolveItemEntities(Localization localization, SmartTargetPageModel stPageModel) {
+        Set<SmartTargetRegion> smartTargetRegions = stPageModel.getRegions().get(SmartTargetRegion.class);
+        if (contentProvider == null || smartTargetRegions == null) {
+            return;
+        }
+
+        Map<String, List<SmartTargetItem>> itemsByEntityId = new LinkedHashMap<>();
+        for (SmartTargetRegion smartTargetRegion : smartTargetRegions) {
+            for (EntityModel entity : smartTargetRegion.getEntities()) {
+                if (!(entity instanceof SmartTargetPromotion) || ((SmartTargetPromotion) entity).getItems() == null) {
+                    continue;
+                }
+                for (SmartTargetItem item : ((SmartTargetPromotion) entity).getItems()) {
+                    itemsByEntityId.computeIfAbsent(item.getEntityId(), id -> new ArrayList<>()).add(item);
+                }
+            }
+        }
+        if (itemsByEntityId.isEmpty()) {
+            return;
+        }
+
+        log.debug("Resolving {} entities for SmartTarget promotions", itemsByEntityId.size());
+        ClaimStore claimStore = AmbientDataContext.getCurrentClaimStore();
+        Executor executor = entitiesExecutor != null ? entitiesExecutor : Runnable::run;
+        Map<String, FutureTask<EntityModel>> requests = new LinkedHashMap<>();
+        for (String entityId : itemsByEntityId.keySet()) {
+            FutureTask<EntityModel> request = new FutureTask<>(() -> loadEntity(entityId, localization, claimStore));
+            requests.put(entityId, request);
+            try {
+                executor.execute(request);
+            } catch (RejectedExecutionException e) {
+                request.run();
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + entitiesTimeoutMs;
+        try {
+            for (Map.Entry<String, FutureTask<EntityModel>> request : requests.entrySet()) {
+                try {
+                    EntityModel entity = request.getValue().get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    itemsByEntityId.get(request.getKey()).forEach(item -> item.setEntity(entity));
+                } catch (ExecutionException e) {
+                    log.warn("Entity {} for SmartTarget promotion is not resolved upfront, it will be loaded lazily", request.getKey(), e.getCause());
+                } catch (TimeoutException e) {
+                    log.warn("Entity {} for SmartTarget promotion is not resolved within {} ms, it will be loaded lazily",
+                            request.getKey(), entitiesTimeoutMs);
+                    request.getValue().cancel(true);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            requests.values().forEach(request -> request.cancel(true));
+        }
+    }
+
+    private EntityModel loadEntity(String entityId, Localization localization, ClaimStore claimStore) throws DxaException {
+        // model builders may depend on the claims of the request, so the claim store is shared with the worker thread
+        ClaimStore previousClaimStore = AmbientDataContext.getCurrentClaimStore();
+        boolean workerThread = claimStore != null && previousClaimStore != claimStore;
+        if (workerThread) {
+            AmbientDataContext.setCurrentClaimStore(claimStore);
+        }
+        try {
+            // failures are not swallowed here, the item is then loaded again on the request thread
+            return contentProvider.getEntityModel(entityId, localization);
+        } finally {
+            if (workerThread) {
+                AmbientDataContext.setCurrentClaimStore(previousClaimStore);
+            }
+        }
+    }
+
     @Override
     public int getOrder() {
         return 1000;
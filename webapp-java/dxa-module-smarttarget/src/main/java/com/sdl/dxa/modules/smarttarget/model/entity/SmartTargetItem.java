@@ -13,8 +13,8 @@ import lombok.Setter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
-@EqualsAndHashCode
-@ToString(doNotUseGetters = true)
+@EqualsAndHashCode(exclude = "resolved")
+@ToString(doNotUseGetters = true, exclude = "resolved")
 @Slf4j
 public class SmartTargetItem {
 
@@ -28,20 +28,34 @@ public class SmartTargetItem {
     @JsonProperty("EntityId")
     private String entityId;
 
+    private boolean resolved;
+
     public SmartTargetItem(String entityId, Localization localization) {
         this.localization = localization;
         this.entityId = entityId;
     }
 
     public EntityModel getEntity() {
-        if (this.entity == null) {
+        if (!resolved) {
+            // entities are normally resolved in bulk when the page model is built, this is a fallback
             ContentProvider contentProvider = ApplicationContextHolder.getContext().getBean(ContentProvider.class);
             try {
                 this.entity = contentProvider.getEntityModel(entityId, localization);
             } catch (DxaException e) {
                 log.warn("EntityModel not found for entity id {}", entityId, e);
             }
+            resolved = true;
         }
         return entity;
     }
+
+    /**
+     * Sets the entity that has been resolved for this item upfront, so {@link #getEntity()} doesn't need to load it.
+     *
+     * @param entity entity model which has been loaded successfully
+     */
+    public void setEntity(EntityModel entity) {
+        this.entity = entity;
+        this.resolved = true;
+    }
 }
@@ -4,16 +4,21 @@ import com.google.common.collect.Lists;
 import com.sdl.dxa.api.datamodel.model.ContentModelData;
 import com.sdl.dxa.api.datamodel.model.PageModelData;
 import com.sdl.dxa.api.datamodel.model.RegionModelData;
+import com.sdl.dxa.modules.smarttarget.model.entity.SmartTargetItem;
 import com.sdl.dxa.modules.smarttarget.model.entity.SmartTargetPageModel;
+import com.sdl.dxa.modules.smarttarget.model.entity.SmartTargetPromotion;
 import com.sdl.dxa.modules.smarttarget.model.entity.SmartTargetRegion;
 import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.content.ContentProvider;
 import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.api.model.EntityModel;
 import com.sdl.webapp.common.api.model.PageModel;
 import com.sdl.webapp.common.api.model.RegionModel;
 import com.sdl.webapp.common.api.model.page.DefaultPageModel;
 import com.sdl.webapp.common.api.model.region.RegionModelImpl;
 import com.sdl.webapp.common.api.model.region.RegionModelSetImpl;
 import com.sdl.webapp.common.exceptions.DxaException;
+import com.sdl.webapp.common.util.ApplicationContextHolder;
 import com.tridion.smarttarget.SmartTargetException;
 import com.tridion.smarttarget.utils.TcmUri;
 import junit.framework.TestCase;
@@ -25,10 +30,14 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.*;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.when;
@@ -45,6 +54,9 @@ public class SmartTargetPageBuilderTest {
     @Mock
     private HttpServletRequest httpServletRequest;
 
+    @Mock
+    private ContentProvider contentProvider;
+
     @Spy
     @InjectMocks
     private SmartTargetPageBuilder pageBuilder;
@@ -144,6 +156,82 @@ public class SmartTargetPageBuilderTest {
         Assert.assertEquals(expected, pageR2);
     }
 
+    @Test
+    public void shouldResolveItemEntitiesOncePerEntityId() throws DxaException {
+        //given
+        SmartTargetItem first = new SmartTargetItem("1-2", localization);
+        SmartTargetItem duplicate = new SmartTargetItem("1-2", localization);
+        SmartTargetItem other = new SmartTargetItem("3-4", localization);
+        SmartTargetPromotion promotion = new SmartTargetPromotion();
+        promotion.setItems(Lists.newArrayList(first, duplicate, other));
+        SmartTargetRegion smartTargetRegion = new SmartTargetRegion("test");
+        smartTargetRegion.addEntity(promotion);
+        SmartTargetPageModel stPageModel = new SmartTargetPageModel(createPageModel(smartTargetRegion));
+
+        EntityModel entity = Mockito.mock(EntityModel.class);
+        EntityModel otherEntity = Mockito.mock(EntityModel.class);
+        when(contentProvider.getEntityModel("1-2", localization)).thenReturn(entity);
+        when(contentProvider.getEntityModel("3-4", localization)).thenReturn(otherEntity);
+
+        //when
+        pageBuilder.resolveItemEntities(localization, stPageModel);
+
+        //then
+        Assert.assertSame(entity, first.getEntity());
+        Assert.assertSame(entity, duplicate.getEntity());
+        Assert.assertSame(otherEntity, other.getEntity());
+        Mockito.verify(contentProvider, Mockito.times(1)).getEntityModel("1-2", localization);
+        Mockito.verify(contentProvider, Mockito.times(1)).getEntityModel("3-4", localization);
+    }
+
+    @Test
+    public void shouldCancelSlowEntityLookupsAndLoadThemLazily() throws Exception {
+        //given
+        ReflectionTestUtils.setField(pageBuilder, "entitiesParallelism", 2);
+        ReflectionTestUtils.setField(pageBuilder, "entitiesTimeoutMs", 100L);
+        pageBuilder.init();
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("contentProvider", contentProvider);
+        context.register(ApplicationContextHolder.class);
+        context.refresh();
+        try {
+            SmartTargetItem fast = new SmartTargetItem("1-2", localization);
+            SmartTargetItem slow = new SmartTargetItem("3-4", localization);
+            SmartTargetPromotion promotion = new SmartTargetPromotion();
+            promotion.setItems(Lists.newArrayList(fast, slow));
+            SmartTargetRegion smartTargetRegion = new SmartTargetRegion("test");
+            smartTargetRegion.addEntity(promotion);
+            SmartTargetPageModel stPageModel = new SmartTargetPageModel(createPageModel(smartTargetRegion));
+
+            EntityModel entity = Mockito.mock(EntityModel.class);
+            EntityModel lazyEntity = Mockito.mock(EntityModel.class);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            when(contentProvider.getEntityModel("1-2", localization)).thenReturn(entity);
+            when(contentProvider.getEntityModel("3-4", localization)).thenAnswer(invocation -> {
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            }).thenReturn(lazyEntity);
+
+            //when
+            pageBuilder.resolveItemEntities(localization, stPageModel);
+
+            //then
+            Assert.assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+            Assert.assertSame(entity, fast.getEntity());
+            Assert.assertSame(lazyEntity, slow.getEntity());
+            Assert.assertSame(lazyEntity, slow.getEntity());
+            Mockito.verify(contentProvider, Mockito.times(1)).getEntityModel("1-2", localization);
+            Mockito.verify(contentProvider, Mockito.times(2)).getEntityModel("3-4", localization);
+        } finally {
+            context.close();
+            pageBuilder.destroy();
+        }
+    }
+
     private void shouldCallSubclassForSmartTargetAndProcessMetadata_R2(String maxItemsValue) throws DxaException {
         //given
         SmartTargetRegion smartTargetRegion = new SmartTargetRegion("test");
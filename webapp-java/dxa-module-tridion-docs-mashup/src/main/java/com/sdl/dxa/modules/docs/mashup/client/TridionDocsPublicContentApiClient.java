@@ -1,6 +1,9 @@
 package com.sdl.dxa.modules.docs.mashup.client;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.sdl.dxa.api.datamodel.model.EntityModelData;
 import com.sdl.dxa.api.datamodel.model.PageModelData;
 import com.sdl.dxa.modules.docs.mashup.exception.DocsMashupException;
@@ -26,15 +29,20 @@ import com.sdl.web.pca.client.contentmodel.generated.SortFieldType;
 import com.sdl.web.pca.client.contentmodel.generated.SortOrderType;
 import com.sdl.web.pca.client.exception.GraphQLClientException;
 import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.localization.Localization;
 import com.sdl.webapp.common.api.model.EntityModel;
 import com.sdl.webapp.common.api.model.KeywordModel;
 import com.sdl.webapp.common.exceptions.DxaException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
@@ -42,6 +50,10 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 /**
@@ -55,11 +67,19 @@ import java.util.regex.Pattern;
 @Profile("!cil.providers.active")
 public class TridionDocsPublicContentApiClient implements TridionDocsClient {
 
-    private final ApiClient apiClient;
+    private final ApiClientProvider apiClientProvider;
     private final WebRequestContext webRequestContext;
     private final ObjectMapper objectMapper;
     private final ModelBuilderPipeline modelBuilderPipeline;
 
+    @Value("${dxa.modules.docsmashup.topics.cache.seconds:300}")
+    private long topicsCacheSeconds = 300;
+
+    @Value("${dxa.modules.docsmashup.topics.cache.size:5000}")
+    private long topicsCacheSize = 5000;
+
+    private Cache<TopicsQuery, List<Topic>> topicsCache;
+
     private static final Logger LOG = LoggerFactory.getLogger(TridionDocsPublicContentApiClient.class);
 
     public static final String TOPICS_URL_PREFIX_CONFIGNAME = "tridiondocsmashup.PrefixForTopicsUrl";
@@ -70,49 +90,67 @@ public class TridionDocsPublicContentApiClient implements TridionDocsClient {
 
         this.webRequestContext = webRequestContext;
         this.objectMapper = objectMapper;
-        this.apiClient = apiClientProvider.getClient();
+        this.apiClientProvider = apiClientProvider;
         this.modelBuilderPipeline = modelBuilderPipeline;
+    }
 
-        this.apiClient.setDefaultContentType(ContentType.MODEL);
-        this.apiClient.setDefaultModelType(DataModelType.R2);
-        this.apiClient.setTcdlLinkRenderingType(TcdlLinkRendering.ABSOLUTE);
-        this.apiClient.setModelSericeLinkRenderingType(ModelServiceLinkRendering.ABSOLUTE);
+    @PostConstruct
+    public void init() {
+        topicsCache = CacheBuilder.newBuilder()
+                .maximumSize(topicsCacheSize)
+                .expireAfterWrite(topicsCacheSeconds, TimeUnit.SECONDS)
+                .build();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>Resolved topics are cached by keywords, language and link prefixes, concurrent requests
+     * for the same topics wait for a single remote query.</p>
+     */
     @Override
     public List<Topic> getTopicsByKeywords(Map<String, KeywordModel> keywords, int maxItems) throws DocsMashupException {
 
+        TopicsQuery query = new TopicsQuery(webRequestContext.getLocalization(), keywords, maxItems);
         try {
-            List<ItemEdge> results = executeQuery(keywords, maxItems);
-            List<Topic> topics = getDocsTopics(results);
-            return topics;
+            if (topicsCache == null) {
+                return loadTopics(query);
+            }
+            return topicsCache.get(query, () -> loadTopics(query));
+        } catch (ExecutionException e) {
+            throw new DocsMashupException("Could not retrieved topics!", e.getCause());
         } catch (Exception e) {
 
             throw new DocsMashupException("Could not retrieved topics!", e);
         }
     }
 
-    private List<ItemEdge> executeQuery(Map<String, KeywordModel> keywords, int maxItems) throws GraphQLClientException, IOException {
+    private List<Topic> loadTopics(TopicsQuery query) throws GraphQLClientException, IOException, DxaException {
+        List<ItemEdge> results = executeQuery(query);
+        return ImmutableList.copyOf(getDocsTopics(results, query.topicsUrlPrefix));
+    }
+
+    private List<ItemEdge> executeQuery(TopicsQuery query) throws GraphQLClientException, IOException {
 
-        if (maxItems < 1) {
+        if (query.maxItems < 1) {
             return null;
         }
 
-        List<InputItemFilter> keywordFilters = getKeyWordFilters(keywords);
+        List<InputItemFilter> keywordFilters = getKeyWordFilters(query.keywords);
+        ApiClient apiClient = createClient(query);
 
         // First , we filter the query based on the specified language in the current culture.
-        InputItemFilter languageFilter = getLanguageFilter(getCurrentLanguage());
+        InputItemFilter languageFilter = getLanguageFilter(query.language);
 
-        ItemConnection results = executeItemQuery(keywordFilters, languageFilter, maxItems);
+        ItemConnection results = executeItemQuery(apiClient, keywordFilters, languageFilter, query.maxItems);
 
         // If no result, then we do another query based on the parent language (if exists).
         if (results == null || results.getEdges() == null || results.getEdges().isEmpty()) {
-            String parentLanguage = getParentLanguage();
+            String parentLanguage = getParentLanguage(query.language);
 
             if (parentLanguage != null && !parentLanguage.isEmpty()) {
                 languageFilter = getLanguageFilter(parentLanguage);
 
-                results = executeItemQuery(keywordFilters, languageFilter, maxItems);
+                results = executeItemQuery(apiClient, keywordFilters, languageFilter, query.maxItems);
             }
         }
 
@@ -123,10 +161,25 @@ public class TridionDocsPublicContentApiClient implements TridionDocsClient {
         return null;
     }
 
+    /**
+     * Creates a client for a single query, so that the link prefixes of one localization
+     * never leak into a concurrent query of another one
+     */
+    private ApiClient createClient(TopicsQuery query) {
+        ApiClient apiClient = apiClientProvider.getClient();
+        apiClient.setDefaultContentType(ContentType.MODEL);
+        apiClient.setDefaultModelType(DataModelType.R2);
+        apiClient.setTcdlLinkRenderingType(TcdlLinkRendering.ABSOLUTE);
+        apiClient.setModelSericeLinkRenderingType(ModelServiceLinkRendering.ABSOLUTE);
+        apiClient.setTcdlLinkUrlPrefix(query.topicsUrlPrefix);
+        apiClient.setTcdlBinaryLinkUrlPrefix(query.binariesUrlPrefix);
+        return apiClient;
+    }
+
     /**
      * Performs the query by PublicContentApi client based on the given filters
      */
-    private ItemConnection executeItemQuery(List<InputItemFilter> keywordfilters, InputItemFilter languageFilter, int maxItems) throws GraphQLClientException, IOException {
+    private ItemConnection executeItemQuery(ApiClient apiClient, List<InputItemFilter> keywordfilters, InputItemFilter languageFilter, int maxItems) throws GraphQLClientException, IOException {
         List<InputItemFilter> customMetaFilters = new ArrayList<>(keywordfilters);
         customMetaFilters.add(languageFilter);
 
@@ -141,9 +194,6 @@ public class TridionDocsPublicContentApiClient implements TridionDocsClient {
 
         Pagination pagination = new Pagination();
         pagination.setFirst(maxItems);
-        
-        apiClient.setTcdlLinkUrlPrefix(getPrefixForTopicsUrl());
-        apiClient.setTcdlBinaryLinkUrlPrefix(getPrefixForBinariesUrl());
 
         ItemConnection results = apiClient.executeItemQuery(filter, inputSortParam, pagination, null, ContentIncludeMode.INCLUDE_JSON_AND_RENDER, false, null);
 
@@ -153,7 +203,7 @@ public class TridionDocsPublicContentApiClient implements TridionDocsClient {
     /**
      * Extracts and returns a collection of topics from the query's results
      */
-    private List<Topic> getDocsTopics(List<ItemEdge> results) throws IOException, DxaException {
+    private List<Topic> getDocsTopics(List<ItemEdge> results, String prefixForTopicsUrl) throws IOException, DxaException {
 
         List<Topic> topics = new LinkedList<Topic>();
 
@@ -180,7 +230,7 @@ public class TridionDocsPublicContentApiClient implements TridionDocsClient {
                 if (topicModel instanceof Topic) {
                     Topic topic = (Topic) topicModel;
                     String topicUrl = topicModelData.getLinkUrl();
-                    topic.setLink(getFullyQualifiedUrlForTopic(topicUrl, getPrefixForTopicsUrl()));
+                    topic.setLink(getFullyQualifiedUrlForTopic(topicUrl, prefixForTopicsUrl));
                     topics.add(topic);
                 } else {
                     LOG.warn("Unexpected View Model type for {}: '{}'", topicModel, topicModel.getClass().getSimpleName());
@@ -196,18 +246,18 @@ public class TridionDocsPublicContentApiClient implements TridionDocsClient {
      * Creates and returns a collection of InputItemFilter based on the given
      * keyword models
      */
-    private static List<InputItemFilter> getKeyWordFilters(Map<String, KeywordModel> keywords) {
+    private static List<InputItemFilter> getKeyWordFilters(Map<String, String> keywords) {
 
         List<InputItemFilter> keyWordFilters = new ArrayList<>();
 
-        for (Map.Entry<String, KeywordModel> entry : keywords.entrySet()) {
+        for (Map.Entry<String, String> entry : keywords.entrySet()) {
 
             InputItemFilter keywordFilter = new InputItemFilter();
 
             InputCustomMetaCriteria customMeta = new InputCustomMetaCriteria();
 
             String key = getKeywordKey(entry.getKey());
-            String value = entry.getValue().getId();
+            String value = entry.getValue();
             CriteriaScope scope = getKeywordScope(entry.getKey());
 
             customMeta.setKey(key);
@@ -297,37 +347,46 @@ public class TridionDocsPublicContentApiClient implements TridionDocsClient {
     }
 
     /**
-     * Get the Uri prefix for the Topic binary links
+     * Get the parent language name of the given language
      */
-    private String getPrefixForTopicsUrl() {
-        return webRequestContext.getLocalization().getConfiguration(TOPICS_URL_PREFIX_CONFIGNAME);
-    }
+    private static String getParentLanguage(String language) {
 
-    /**
-     * Get the Uri prefix for the Topic links
-     */
-    private String getPrefixForBinariesUrl() {
-        return webRequestContext.getLocalization().getConfiguration(TOPICS_BINARYURL_PREFIX_CONFIGNAME);
-    }
+        String[] parts = language.split("-");
 
-    /**
-     * Get the language name of the current localization
-     */
-    private String getCurrentLanguage() {
-        return webRequestContext.getLocalization().getCulture();
+        if (parts != null && parts.length > 1) {
+            return parts[0];
+        }
+
+        return null;
     }
 
     /**
-     * Get the parent language name of the current localization
+     * Everything a topics query depends on, captured once from the current request
      */
-    private String getParentLanguage() {
+    @EqualsAndHashCode
+    @ToString
+    private static final class TopicsQuery {
 
-        String[] parts = webRequestContext.getLocalization().getCulture().split("-");
+        private final String localizationId;
 
-        if (parts != null && parts.length > 1) {
-            return parts[0];
-        }
+        private final SortedMap<String, String> keywords;
 
-        return null;
+        private final int maxItems;
+
+        private final String language;
+
+        private final String topicsUrlPrefix;
+
+        private final String binariesUrlPrefix;
+
+        private TopicsQuery(Localization localization, Map<String, KeywordModel> keywords, int maxItems) {
+            this.localizationId = localization.getId();
+            this.keywords = new TreeMap<>();
+            keywords.forEach((key, keyword) -> this.keywords.put(key, keyword.getId()));
+            this.maxItems = maxItems;
+            this.language = localization.getCulture();
+            this.topicsUrlPrefix = localization.getConfiguration(TOPICS_URL_PREFIX_CONFIGNAME);
+            this.binariesUrlPrefix = localization.getConfiguration(TOPICS_BINARYURL_PREFIX_CONFIGNAME);
+        }
     }
 }
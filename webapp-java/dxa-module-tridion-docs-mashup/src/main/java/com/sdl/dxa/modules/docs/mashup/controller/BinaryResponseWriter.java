@@ -0,0 +1,176 @@
+package com.sdl.dxa.modules.docs.mashup.controller;
+
+import com.sdl.webapp.common.api.content.StaticContentItem;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Writes binaries to the response with support for conditional and range requests.
+ * <ul>
+ * <li>{@code ETag} and {@code Last-Modified} are derived from the binary, a matching {@code If-None-Match}
+ * or {@code If-Modified-Since} results in {@code 304 Not Modified} without reading the content.</li>
+ * <li>A single byte range is served as {@code 206 Partial Content} when the length of the content is known,
+ * taking {@code If-Range} into account. Multiple ranges are answered with the full content.</li>
+ * <li>Content backed by a file is transferred by its channel, other content is copied with a buffer of
+ * the given size.</li>
+ * </ul>
+ */
+final class BinaryResponseWriter {
+
+    private BinaryResponseWriter() {
+    }
+
+    /**
+     * Strong validator of a binary, which changes whenever the binary is republished.
+     *
+     * @return the entity tag, or {@code null} if the binary has no modification date to derive it from
+     */
+    static String getETag(int publicationId, int binaryId, StaticContentItem content) {
+        long lastModified = content.getLastModified();
+        return lastModified > 0 ? "\"" + publicationId + "-" + binaryId + "-" + lastModified + "\"" : null;
+    }
+
+    /**
+     * Writes the binary, or only the status and headers if the client's copy is still valid.
+     *
+     * @param request    current request
+     * @param response   current response
+     * @param content    binary content
+     * @param mimeType   mime type of the binary
+     * @param eTag       entity tag of the binary, may be {@code null}
+     * @param bufferSize size of the copy buffer
+     * @throws IOException if the content cannot be read or the response cannot be written
+     */
+    static void write(HttpServletRequest request, HttpServletResponse response, StaticContentItem content,
+                      String mimeType, String eTag, int bufferSize) throws IOException {
+        long lastModified = content.getLastModified() > 0 ? content.getLastModified() : -1;
+        if ((eTag != null || lastModified > 0) && new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return;
+        }
+
+        try (InputStream in = content.getContent()) {
+            long length = getLength(in);
+            response.setContentType(mimeType);
+
+            long start = 0;
+            long count = length;
+            HttpRange range = length >= 0 ? getRange(request, eTag, lastModified) : null;
+            if (length >= 0) {
+                response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            }
+            if (range != null) {
+                start = range.getRangeStart(length);
+                if (start >= length) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                long end = range.getRangeEnd(length);
+                count = end - start + 1;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            if (count >= 0) {
+                response.setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(count));
+            }
+            if ("HEAD".equalsIgnoreCase(request.getMethod())) {
+                return;
+            }
+
+            copy(in, response.getOutputStream(), start, count, bufferSize);
+        }
+    }
+
+    private static HttpRange getRange(HttpServletRequest request, String eTag, long lastModified) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(eTag)) {
+            // If-Range holds either an entity tag or a date
+            boolean isETag = ifRange.startsWith("\"") || ifRange.startsWith("W/");
+            long ifRangeDate = isETag ? -1 : parseDate(request);
+            if (ifRangeDate < 0 || lastModified < 0 || lastModified / 1000 > ifRangeDate / 1000) {
+                // the client's copy is outdated, so it gets the full content
+                return null;
+            }
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long parseDate(HttpServletRequest request) {
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static long getLength(InputStream in) throws IOException {
+        if (in instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) in).getChannel();
+            return channel.size() - channel.position();
+        }
+        if (in instanceof ByteArrayInputStream) {
+            // available() is exact for in-memory content only
+            return in.available();
+        }
+        return -1;
+    }
+
+    private static void copy(InputStream in, OutputStream out, long start, long count, int bufferSize) throws IOException {
+        if (in instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) in).getChannel();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = channel.position() + start;
+            long remaining = count >= 0 ? count : channel.size() - position;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+            return;
+        }
+
+        long skipped = 0;
+        while (skipped < start) {
+            long n = in.skip(start - skipped);
+            if (n <= 0) {
+                break;
+            }
+            skipped += n;
+        }
+        byte[] buffer = new byte[Math.max(1024, bufferSize)];
+        long remaining = count >= 0 ? count : Long.MAX_VALUE;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                break;
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+}
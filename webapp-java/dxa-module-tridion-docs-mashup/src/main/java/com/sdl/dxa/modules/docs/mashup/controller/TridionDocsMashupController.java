@@ -20,18 +20,17 @@ import com.sdl.webapp.common.controller.EntityController;
 import com.sdl.webapp.common.util.MimeUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.xml.bind.ValidationException;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -53,6 +52,9 @@ public class TridionDocsMashupController extends EntityController {
     private final Dxa22ContentProvider contentProvider;
     private final TridionDocsClient tridionDocsClient;
 
+    @Value("${dxa.modules.docsmashup.binary.buffersize:65536}")
+    private int binaryBufferSize = 65536;
+
     @Autowired
     public TridionDocsMashupController(WebRequestContext webRequestContext, Dxa22ContentProvider contentProvider, TridionDocsClient tridionDocsClient) {
         this.webRequestContext = webRequestContext;
@@ -133,28 +135,30 @@ public class TridionDocsMashupController extends EntityController {
     }
 
     /**
-     * Get binary data.
+     * Get binary data, supports conditional and single range requests.
      *
      * @param publicationId Publication id
      * @param binaryId      Binary id
-     * @return Binary data using a stream.
+     * @param request       HTTP Request object
+     * @param response      HTTP Response object
      * @throws ContentProviderException if page model cannot be fetched
      * @throws IOException              if something wrong with tomcat response channel
      */
-     @RequestMapping(method = GET, value ="/binary/{publicationId}/{binaryId}/**" ,produces = MediaType.ALL_VALUE)
+    @RequestMapping(method = GET, value ="/binary/{publicationId}/{binaryId}/**" ,produces = MediaType.ALL_VALUE)
     @ResponseBody
-    public ResponseEntity<InputStreamResource> getBinaryResource(@PathVariable Integer publicationId,
-                                                                 @PathVariable Integer binaryId)
+    public void getBinaryResource(@PathVariable Integer publicationId,
+                                  @PathVariable Integer binaryId,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response)
             throws ContentProviderException, IOException {
 
-        HttpHeaders responseHeaders = new HttpHeaders();
         DocsLocalization docsLocalization = new DocsLocalization();
         docsLocalization.setPublicationId(String.valueOf(publicationId));
         StaticContentItem binaryItem = contentProvider.getStaticContent(binaryId, docsLocalization);
         if (binaryItem == null) {
-            return new ResponseEntity<>(null, responseHeaders, HttpStatus.NOT_FOUND);
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
         }
-        InputStreamResource result = new InputStreamResource(binaryItem.getContent());
 
         String type = binaryItem.getContentType();
         String mimeType = null;
@@ -166,10 +170,8 @@ public class TridionDocsMashupController extends EntityController {
             mimeType = MimeUtils.getMimeType(type);
         }
 
-        responseHeaders.setContentType(MediaType.parseMediaType(mimeType));
-        responseHeaders.setContentLength(binaryItem.getContent().available());
-
-        return new ResponseEntity<>(result, responseHeaders, HttpStatus.OK);
+        String eTag = BinaryResponseWriter.getETag(publicationId, binaryId, binaryItem);
+        BinaryResponseWriter.write(request, response, binaryItem, mimeType, eTag, binaryBufferSize);
     }
 
     private Boolean validate(Map<String, KeywordModel> keywords, Integer maxItems) throws ValidationException {
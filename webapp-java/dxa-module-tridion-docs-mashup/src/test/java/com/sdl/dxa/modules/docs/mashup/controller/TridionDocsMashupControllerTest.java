@@ -8,6 +8,7 @@ import com.sdl.dxa.modules.docs.mashup.models.widgets.StaticWidget;
 import com.sdl.dxa.modules.docs.mashup.models.widgets.Topic;
 import com.sdl.webapp.common.api.WebRequestContext;
 import com.sdl.webapp.common.api.content.Dxa22ContentProvider;
+import com.sdl.webapp.common.api.content.StaticContentItem;
 import com.sdl.webapp.common.api.localization.Localization;
 import com.sdl.webapp.common.api.model.EntityModel;
 import com.sdl.webapp.common.api.model.KeywordModel;
@@ -26,16 +27,23 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 import javax.xml.bind.ValidationException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -45,6 +53,8 @@ import static org.mockito.Mockito.when;
 public class TridionDocsMashupControllerTest {
     private final RichText TOPIC_TITLE = new RichText("Test Topic");
     private final String PRODUCT_VIEW_MODEL = "Test View";
+    private static final long LAST_MODIFIED = 1_500_000_000_000L;
+    private static final String ETAG = "\"1-2-" + LAST_MODIFIED + "\"";
 	
     @Mock
     private WebRequestContext webRequestContext;
@@ -183,4 +193,65 @@ public class TridionDocsMashupControllerTest {
         //when
         StaticWidget actual = (StaticWidget)controller.enrichModel(staticWidget, new MockHttpServletRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldAnswerNotModifiedForMatchingBinaryETag() throws Exception {
+        //given
+        StaticContentItem binary = mockBinary();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/docsmashup/binary/1/2/image");
+        request.addHeader("If-None-Match", ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        controller.getBinaryResource(1, 2, request, response);
+
+        //then
+        Assert.assertEquals(304, response.getStatus());
+        Assert.assertEquals(0, response.getContentAsByteArray().length);
+        verify(binary, never()).getContent();
+    }
+
+    @Test
+    public void shouldServeSingleRangeOfBinary() throws Exception {
+        //given
+        mockBinary();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/docsmashup/binary/1/2/image");
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        controller.getBinaryResource(1, 2, request, response);
+
+        //then
+        Assert.assertEquals(206, response.getStatus());
+        Assert.assertEquals("2345", response.getContentAsString());
+        Assert.assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        Assert.assertEquals("image/png", response.getContentType());
+        Assert.assertEquals(ETAG, response.getHeader("ETag"));
+    }
+
+    @Test
+    public void shouldRejectUnsatisfiableRangeOfBinary() throws Exception {
+        //given
+        mockBinary();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/docsmashup/binary/1/2/image");
+        request.addHeader("Range", "bytes=20-30");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        controller.getBinaryResource(1, 2, request, response);
+
+        //then
+        Assert.assertEquals(416, response.getStatus());
+        Assert.assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    private StaticContentItem mockBinary() throws Exception {
+        StaticContentItem binary = mock(StaticContentItem.class);
+        when(binary.getContentType()).thenReturn("image/png");
+        when(binary.getLastModified()).thenReturn(LAST_MODIFIED);
+        when(binary.getContent()).thenReturn(new ByteArrayInputStream("0123456789".getBytes(StandardCharsets.US_ASCII)));
+        when(contentProvider.getStaticContent(eq(2), any(Localization.class))).thenReturn(binary);
+        return binary;
+    }
+}
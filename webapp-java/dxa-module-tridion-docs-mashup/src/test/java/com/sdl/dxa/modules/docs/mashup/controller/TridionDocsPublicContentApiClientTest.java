@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sdl.dxa.modules.docs.mashup.client.TridionDocsPublicContentApiClient;
 import com.sdl.dxa.tridion.mapping.ModelBuilderPipeline;
 import com.sdl.dxa.tridion.pcaclient.ApiClientProvider;
+import com.sdl.dxa.modules.docs.mashup.models.widgets.Topic;
 import com.sdl.web.pca.client.ApiClient;
 import com.sdl.web.pca.client.exception.GraphQLClientException;
 import org.junit.Assert;
@@ -13,8 +14,14 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import com.sdl.webapp.common.api.WebRequestContext;
 import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.api.model.KeywordModel;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import org.junit.Before;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -81,4 +88,25 @@ public class TridionDocsPublicContentApiClientTest {
     public void getLinkThrownWhenInvalidLink() {
         tridionDocsPublicContentApiClient.getFullyQualifiedUrlForTopic("/test-page%", "");
     }
+
+    @Test
+    public void shouldServeRepeatedTopicQueriesFromCache() throws Exception {
+        //given
+        KeywordModel keyword = new KeywordModel();
+        keyword.setId("42");
+        Map<String, KeywordModel> keywords = Collections.singletonMap("Item.FMBCONTENTREFTYPE.Logical", keyword);
+        when(localization.getId()).thenReturn("1");
+        when(localization.getCulture()).thenReturn("en-US");
+        tridionDocsPublicContentApiClient.init();
+
+        //when
+        List<Topic> first = tridionDocsPublicContentApiClient.getTopicsByKeywords(keywords, 5);
+        List<Topic> second = tridionDocsPublicContentApiClient.getTopicsByKeywords(keywords, 5);
+
+        //then
+        Assert.assertTrue(first.isEmpty());
+        Assert.assertSame(first, second);
+        verify(apiClientProvider, times(1)).getClient();
+        verify(apiClient).setTcdlLinkUrlPrefix("http://test.com");
+    }
 }
@@ -2,6 +2,12 @@ package com.sdl.dxa.modules.docs.search.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.sdl.delivery.iq.query.api.Criteria;
 import com.sdl.delivery.iq.query.api.QueryException;
 import com.sdl.delivery.iq.query.client.DefaultSearcher;
@@ -15,13 +21,27 @@ import com.sdl.dxa.modules.docs.search.model.SearchResultSet;
 import com.sdl.webapp.common.controller.exception.SearchParametersProcessingException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.servlet.ServletContext;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
 /**
  * SearchService class responsible of performing search by given parameters in UDP search service.
@@ -30,10 +50,68 @@ import java.util.Locale;
 @Component
 public class SearchService {
     private static final ObjectReader READER = new ObjectMapper().readerFor(SearchParameters.class);
+    private static final Pattern MORE_THAN_ONE_SPACES = Pattern.compile("\\s+");
 
     @Autowired
     private SearcherConfigurer searcherConfigurer;
 
+    @Value("${dxa.modules.docs.search.cache.size:1000}")
+    private long resultCacheSize = 1000;
+
+    @Value("${dxa.modules.docs.search.cache.ttl.seconds:30}")
+    private long resultCacheSeconds = 30;
+
+    @Value("${dxa.modules.docs.search.parallelism:8}")
+    private int searchParallelism = 8;
+
+    @Value("${dxa.modules.docs.search.retry.attempts:3}")
+    private int retryAttempts = 3;
+
+    @Value("${dxa.modules.docs.search.retry.delay.millis:200}")
+    private long retryDelayMillis = 200;
+
+    @Value("${dxa.modules.docs.search.retry.deadline.millis:5000}")
+    private long retryDeadlineMillis = 5000;
+
+    private Cache<List<Object>, SearchResultSet> results;
+
+    private LoadingCache<List<Integer>, DefaultSearcher> searchers;
+
+    private ExecutorService searchExecutor;
+
+    private ScheduledExecutorService retryScheduler;
+
+    @PostConstruct
+    public void init() {
+        results = CacheBuilder.newBuilder()
+                .maximumSize(resultCacheSize)
+                .expireAfterWrite(resultCacheSeconds, TimeUnit.SECONDS)
+                .build();
+        // a searcher is configured once and only used for searches of the same result range afterwards
+        searchers = CacheBuilder.newBuilder()
+                .maximumSize(64)
+                .build(new CacheLoader<List<Integer>, DefaultSearcher>() {
+                    @Override
+                    public DefaultSearcher load(List<Integer> range) throws SearchException {
+                        return newSearcher(range.get(0), range.get(1));
+                    }
+                });
+        searchExecutor = Executors.newFixedThreadPool(Math.max(1, searchParallelism),
+                new ThreadFactoryBuilder().setNameFormat("docs-search-%d").setDaemon(true).build());
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("docs-search-retry-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (retryScheduler != null) {
+            retryScheduler.shutdownNow();
+        }
+        if (searchExecutor != null) {
+            searchExecutor.shutdownNow();
+        }
+    }
+
     /**
      * Performs search by using UDP search service with given search parameters in string json.
      *
@@ -59,7 +137,6 @@ public class SearchService {
                                   String separator,
                                   String language) throws SearchException {
         SearchParameters searchParameters = parseParameters(parametersJson);
-        DefaultSearcher searcher = createSearcher(searchParameters);
         if (namespace != null && !namespace.isEmpty()) {
             searchParameters.setIqNamespace(namespace);
         }
@@ -69,54 +146,133 @@ public class SearchService {
         if (language != null && !language.isEmpty()) {
             searchParameters.setIqDefaultLanguage(language);
         }
+
+        List<Object> key = resultKey(searchParameters);
+        SearchResultSet cached = results == null ? null : results.getIfPresent(key);
+        if (cached != null) {
+            log.trace("Search result for {} is served from cache", key);
+            return cached;
+        }
+
+        DefaultSearcher searcher = createSearcher(searchParameters);
         Criteria searchCriteria = searcherConfigurer.buildCriteria(searchParameters);
         SearchQueryResultSet result = null;
-        QueryException[] exception = new QueryException[1];
         try {
             log.trace("Search criteria is: {}", searchCriteria.getRawQuery());
-            result = getSearchResultsWithRetry(searcher, searchCriteria, 3, exception);
+            result = getSearchResultsWithRetry(searcher, searchCriteria);
         } catch (Exception e) {
             log.error("Could not perform search for parameters {}", parametersJson, e);
             throw new SearchException("Could not perform search for parameters " + parametersJson, e);
         }
-        return buildSearchResultSet(result, searchParameters);
+        SearchResultSet searchResultSet = buildSearchResultSet(result, searchParameters);
+        if (results != null) {
+            results.put(key, searchResultSet);
+        }
+        return searchResultSet;
     }
 
+    /**
+     * Performs the search. Every attempt runs on the bounded search pool and failed attempts are resubmitted after
+     * a delay by the retry scheduler, so the caller waits for a result until the deadline at most.
+     */
     private SearchQueryResultSet getSearchResultsWithRetry(DefaultSearcher searcher,
-                                                           Criteria searchCriteria,
-                                                           int attempt,
-                                                           Exception[] exception) throws QueryException {
-        while (attempt > 0) {
-            attempt--;
-            try {
-                return searcher.search(searchCriteria);
-            } catch (Exception ex) {
-                if (exception[0] == null) exception[0] = ex;
+                                                           Criteria searchCriteria) throws QueryException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDeadlineMillis);
+        CompletableFuture<SearchQueryResultSet> result = new CompletableFuture<>();
+        submitAttempt(searcher, searchCriteria, 1, deadline, result);
+        try {
+            return result.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw new QueryException("Could not perform search " + searchCriteria, e.getCause());
+        } catch (TimeoutException e) {
+            throw new QueryException("Could not perform search " + searchCriteria + " within " + retryDeadlineMillis + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryException("Interrupted while performing search " + searchCriteria, e);
+        } finally {
+            // stops pending retries if we gave up waiting
+            result.cancel(false);
+        }
+    }
+
+    private void submitAttempt(DefaultSearcher searcher,
+                               Criteria searchCriteria,
+                               int attempt,
+                               long deadline,
+                               CompletableFuture<SearchQueryResultSet> result) {
+        Executor executor = searchExecutor != null ? searchExecutor : Runnable::run;
+        try {
+            executor.execute(() -> attempt(searcher, searchCriteria, attempt, deadline, result));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void attempt(DefaultSearcher searcher,
+                         Criteria searchCriteria,
+                         int attempt,
+                         long deadline,
+                         CompletableFuture<SearchQueryResultSet> result) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            result.complete(searcher.search(searchCriteria));
+        } catch (Exception e) {
+            long delay = retryDelayMillis * attempt;
+            if (attempt >= retryAttempts || retryScheduler == null
+                    || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) >= deadline) {
+                log.debug("Search attempt {} failed, giving up", attempt, e);
+                result.completeExceptionally(e);
+                return;
             }
+            log.debug("Search attempt {} failed, retrying in {} ms", attempt, delay, e);
             try {
-                Thread.sleep(200);
-            } catch (InterruptedException e) {
-                log.error("Interrupted");
-                Thread.currentThread().interrupt();
-                break;
+                // the scheduler only triggers the retry, the search itself runs on the search pool again
+                retryScheduler.schedule(() -> submitAttempt(searcher, searchCriteria, attempt + 1, deadline, result),
+                        delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                result.completeExceptionally(e);
             }
         }
-        throw new QueryException("Could not perform search " + searchCriteria + " after 3 attempts", exception[0]);
     }
 
     DefaultSearcher createSearcher(SearchParameters parameters) throws SearchException {
+        int start = parameters.getStartIndex();
+        int end = parameters.getStartIndex() + parameters.getCount();
+        if (searchers == null) {
+            return newSearcher(start, end);
+        }
+        try {
+            return searchers.get(Arrays.asList(start, end));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new SearchException("Could not create searcher for parameters: " + parameters, e.getCause());
+        }
+    }
+
+    private DefaultSearcher newSearcher(int start, int end) throws SearchException {
         try {
             DefaultSearcher searcher = DefaultSearcher.newSearcher();
             searcher.withResultFilter(SearchResultFilter
                     .create()
-                    .withResultSetRange(parameters.getStartIndex(), parameters.getStartIndex() + parameters.getCount())
+                    .withResultSetRange(start, end)
                     .enableHighlighting());
             return searcher;
         } catch (Exception e) {
-            throw new SearchException("Could not create searcher for parameters: " + parameters, e);
+            throw new SearchException("Could not create searcher for range " + start + "-" + end, e);
         }
     }
 
+    /**
+     * Key of a search result: the query without case and extra whitespace, with everything else that affects it.
+     */
+    private static List<Object> resultKey(SearchParameters parameters) {
+        String query = parameters.getSearchQuery() == null ? "" : MORE_THAN_ONE_SPACES.matcher(parameters.getSearchQuery().trim())
+                .replaceAll(" ").toLowerCase(Locale.ROOT);
+        return Arrays.asList(query, parameters.getLanguage(), parameters.getPublicationId(), parameters.getStartIndex(),
+                parameters.getCount(), parameters.getIqNamespace(), parameters.getIqSeparator(), parameters.getIqDefaultLanguage());
+    }
+
     SearchParameters parseParameters(String parametersJson) {
         try {
             return READER.readValue(parametersJson);
@@ -132,7 +288,7 @@ public class SearchService {
         searchResultSet.setStartIndex(searchParameters.getStartIndex());
         searchResultSet.setHits(resultSet.getHits());
         List<SearchQueryResult> resultList = resultSet.getQueryResults().orElse(Collections.EMPTY_LIST);
-        List<SearchResult> convertedResult = new ArrayList<>();
+        List<SearchResult> convertedResult = new ArrayList<>(resultList.size());
         for (SearchQueryResult queryResult : resultList) {
             convertedResult.add(convertQueryResult(queryResult));
         }
@@ -1,5 +1,7 @@
 package com.sdl.dxa.modules.docs.search.service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Sets;
 import com.sdl.delivery.iq.query.api.Criteria;
 import com.sdl.delivery.iq.query.api.Operation;
@@ -16,14 +18,13 @@ import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutionException;
 
 /**
  * SearcherConfigurer responsible for producing Criteria for UDP search service.
@@ -33,15 +34,17 @@ import java.util.regex.Pattern;
 public class SearcherConfigurer {
     private static final String DEFAULT_SEPARATOR = "+"; // it used to be '.'
     private static final String DEFAULT_LANGUAGE = "english";
-    private static final Pattern REGEXP_DOUBLE_QUOTES = Pattern.compile("^\"(.*)\"$");
 
     private static final String PUBLICATION_ONLINE_STATUS_VALUE = "VDITADLVRREMOTESTATUSONLINE";
     private static final Set<String> cjk = Collections.unmodifiableSet(
             Sets.newHashSet("chinese", "japanese", "korean"));
 
-    private String getContentField(String separator, String language) {
-        return getPublicationOnlineStatusField("content", separator, language);
-    }
+    /**
+     * Everything of a query that only depends on the language and the IQ settings, built once for every combination.
+     */
+    private final Cache<List<String>, QueryTemplate> templates = CacheBuilder.newBuilder()
+            .maximumSize(256)
+            .build();
 
     private static String getDeclaredSeparator(String property) {
         if (property == null || property.isEmpty()) {
@@ -83,49 +86,20 @@ public class SearcherConfigurer {
      * @return the Criteria class with search parameters.
      */
     public Criteria buildCriteria(SearchParameters searchParameters) throws SearchException {
-        String namespace = getDeclaredNamespace(searchParameters.getIqNamespace());
-        String separator = getDeclaredSeparator(searchParameters.getIqSeparator());
         Objects.requireNonNull(searchParameters, "Please provide search parameters.");
         if (searchParameters.getSearchQuery().isEmpty()) {
             log.error("Search query is empty. Not able to perform search.");
             throw new IllegalArgumentException("Empty search query is not allowed.");
         }
         try {
-            String language = Locale.forLanguageTag(searchParameters.getLanguage())
-                    .getDisplayLanguage()
-                    .toLowerCase();
-            if (language.isEmpty()) {
-                language = getDeclaredLanguage(searchParameters.getIqDefaultLanguage());
-            }
-            if (!cjk.contains(language)) {
-                return singleLanguageSearchQuery(searchParameters, namespace, separator, language);
-            }
-            log.trace("Added cjk language {} to search query", language);
-
-            String searchQueryParam = searchParameters.getSearchQuery();
-            Matcher matcher = REGEXP_DOUBLE_QUOTES.matcher(searchQueryParam);
-            if (matcher.find()) {
-                searchQueryParam = matcher.group(1);
+            QueryTemplate template = getTemplate(searchParameters);
+            String searchQueryParam = unquote(searchParameters.getSearchQuery());
+            if (!template.cjk) {
+                return singleLanguageSearchQuery(template, searchParameters.getPublicationId(), searchQueryParam);
             }
+            log.trace("Added cjk language {} to search query", template.language);
             log.trace("Added {} to search query", searchQueryParam);
-            List<Pair<String, Object>> extraParameters = new ArrayList<>();
-            if (searchParameters.getPublicationId() != null) {
-                Integer publicationId = searchParameters.getPublicationId();
-                Pair<String, Object> publicationIdPair =
-                        new ImmutablePair<>("publicationId", publicationId);
-                extraParameters.add(publicationIdPair);
-                log.trace("Added publicationId {} to search query", publicationId);
-            }
-            if (namespace != null && !namespace.isEmpty()) {
-                Pair<String, Object> namespacePair =
-                        new ImmutablePair<>("namespace", namespace);
-                extraParameters.add(namespacePair);
-                log.debug("Added namespace {} to search query", namespace);
-            }
-            return createSearchQuery(separator,
-                    language,
-                    searchQueryParam,
-                    extraParameters.toArray(new Pair[0])).compile();
+            return createSearchQuery(template, searchParameters.getPublicationId(), searchQueryParam).compile();
         } catch (Exception e) {
             String message = "Could not build search criteria parameters " + searchParameters;
             log.error(message, e);
@@ -133,23 +107,67 @@ public class SearcherConfigurer {
         }
     }
 
-    private Operation createSearchQuery(String separator,
-                                        String language,
-                                        String searchQueryParam,
-                                        Pair<String, String>[] parameters) throws QueryException {
-        String remoteStatusField = getRemoteStatusField(separator);
-        if (parameters == null || parameters.length == 0) {
+    private QueryTemplate getTemplate(final SearchParameters searchParameters) throws ExecutionException {
+        List<String> key = Arrays.asList(searchParameters.getLanguage(), searchParameters.getIqDefaultLanguage(),
+                searchParameters.getIqSeparator(), searchParameters.getIqNamespace());
+        return templates.get(key, () -> createTemplate(searchParameters));
+    }
+
+    private QueryTemplate createTemplate(SearchParameters searchParameters) {
+        String namespace = getDeclaredNamespace(searchParameters.getIqNamespace());
+        String separator = getDeclaredSeparator(searchParameters.getIqSeparator());
+        String language = Locale.forLanguageTag(searchParameters.getLanguage())
+                .getDisplayLanguage()
+                .toLowerCase();
+        if (language.isEmpty()) {
+            language = getDeclaredLanguage(searchParameters.getIqDefaultLanguage());
+        }
+        boolean isCjk = cjk.contains(language);
+        String contentLanguage = isCjk ? language : Locale
+                .forLanguageTag(language)
+                .getDisplayLanguage()
+                .toLowerCase();
+        log.debug("Created search query template for language {}, namespace {} and separator '{}'",
+                language, namespace, separator);
+        return new QueryTemplate(language, isCjk, namespace,
+                getPublicationOnlineStatusField("dynamic", separator, "FISHDITADLVRREMOTESTATUS.lng.element"),
+                getPublicationOnlineStatusField("content", separator, contentLanguage),
+                getPublicationOnlineStatusField("content", separator, "cjk"));
+    }
+
+    private static String unquote(String searchQuery) {
+        int length = searchQuery.length();
+        if (length >= 2 && searchQuery.charAt(0) == '"' && searchQuery.charAt(length - 1) == '"') {
+            return searchQuery.substring(1, length - 1);
+        }
+        return searchQuery;
+    }
+
+    private Operation createSearchQuery(QueryTemplate template,
+                                        Integer publicationId,
+                                        String searchQueryParam) throws QueryException {
+        String remoteStatusField = template.remoteStatusField;
+        List<Pair<String, Object>> parameters = new ArrayList<>(2);
+        if (publicationId != null) {
+            parameters.add(new ImmutablePair<>("publicationId", publicationId));
+            log.trace("Added publicationId {} to search query", publicationId);
+        }
+        if (template.namespace != null) {
+            parameters.add(new ImmutablePair<>("namespace", template.namespace));
+            log.debug("Added namespace {} to search query", template.namespace);
+        }
+        if (parameters.isEmpty()) {
             return SearchQuery.newQuery()
                     .field(remoteStatusField, PUBLICATION_ONLINE_STATUS_VALUE)
                         .and()
                     .groupStart()
-                        .field(getContentField(separator, "cjk"), searchQueryParam)
+                        .field(template.cjkContentField, searchQueryParam)
                             .or()
-                        .field(getContentField(separator, language), searchQueryParam)
+                        .field(template.contentField, searchQueryParam)
                     .groupEnd();
         }
-        Pair<String, String> parameter1 = parameters[0];
-        if (parameters.length == 1) {
+        Pair<String, Object> parameter1 = parameters.get(0);
+        if (parameters.size() == 1) {
             return SearchQuery.newQuery()
                     .groupStart()
                         .field(parameter1.getLeft(), new DefaultTermValue(parameter1.getRight()))
@@ -158,51 +176,50 @@ public class SearcherConfigurer {
                     .groupEnd()
                         .and()
                     .groupStart()
-                        .field(getContentField(separator, "cjk"), searchQueryParam)
+                        .field(template.cjkContentField, searchQueryParam)
                             .or()
-                        .field(getContentField(separator, language), searchQueryParam)
+                        .field(template.contentField, searchQueryParam)
                     .groupEnd();
         }
-        if (parameters.length == 2) {
-            Pair<String, String> parameter2 = parameters[1];
-            return SearchQuery.newQuery()
-                    .groupStart()
-                        .field(parameter1.getLeft(), new DefaultTermValue(parameter1.getRight()))
-                            .and()
-                        .field(parameter2.getLeft(), new DefaultTermValue(parameter2.getRight()))
-                    .groupEnd()
+        Pair<String, Object> parameter2 = parameters.get(1);
+        return SearchQuery.newQuery()
+                .groupStart()
+                    .field(parameter1.getLeft(), new DefaultTermValue(parameter1.getRight()))
+                        .and()
+                    .field(parameter2.getLeft(), new DefaultTermValue(parameter2.getRight()))
+                .groupEnd()
+                    .and()
+                .groupStart()
+                    .field(remoteStatusField, PUBLICATION_ONLINE_STATUS_VALUE)
                         .and()
                     .groupStart()
-                        .field(remoteStatusField, PUBLICATION_ONLINE_STATUS_VALUE)
-                            .and()
-                        .groupStart()
-                            .field(getContentField(separator, "cjk"), searchQueryParam)
-                                .or()
-                            .field(getContentField(separator, language), searchQueryParam)
-                        .groupEnd()
-                    .groupEnd();
-        }
-        throw new UnsupportedOperationException("Only 0, 1, or 2 elements are supported");
-    }
-
-    @NotNull
-    private String getRemoteStatusField(String separator) {
-        return getPublicationOnlineStatusField("dynamic", separator, "FISHDITADLVRREMOTESTATUS.lng.element");
+                        .field(template.cjkContentField, searchQueryParam)
+                            .or()
+                        .field(template.contentField, searchQueryParam)
+                    .groupEnd()
+                .groupEnd();
     }
 
-    private Criteria singleLanguageSearchQuery(SearchParameters searchParameters,
-                                               String namespace,
-                                               String separator,
-                                               String language) throws QueryException {
-        Pair<List<String>, List<TermValue>> queryFieldsPair = createQueryFieldsPair();
-        setNamespaceField(queryFieldsPair, namespace);
-        setPublicationIdField(queryFieldsPair, searchParameters);
-        String remoteStatusField = getRemoteStatusField(separator);
-        addQueryField(queryFieldsPair, remoteStatusField, PUBLICATION_ONLINE_STATUS_VALUE);
-        setSearchQuery(queryFieldsPair, searchParameters, separator, language);
+    private Criteria singleLanguageSearchQuery(QueryTemplate template,
+                                               Integer publicationId,
+                                               String searchQuery) throws QueryException {
+        List<String> queryFieldNames = new ArrayList<>(4);
+        List<TermValue> queryFieldValues = new ArrayList<>(4);
+        if (template.namespace != null) {
+            queryFieldNames.add("namespace");
+            queryFieldValues.add(new DefaultTermValue(template.namespace));
+        }
+        if (publicationId != null) {
+            queryFieldNames.add("publicationId");
+            queryFieldValues.add(new DefaultTermValue(publicationId));
+        }
+        queryFieldNames.add(template.remoteStatusField);
+        queryFieldValues.add(new DefaultTermValue(PUBLICATION_ONLINE_STATUS_VALUE));
+        queryFieldNames.add(template.contentField);
+        queryFieldValues.add(new DefaultTermValue(searchQuery));
         return SearchQuery
                 .newQuery()
-                .groupedAnd(queryFieldsPair.getLeft(), queryFieldsPair.getRight())
+                .groupedAnd(queryFieldNames, queryFieldValues)
                 .compile();
     }
 
@@ -211,49 +228,28 @@ public class SearcherConfigurer {
         return prefix + separator + suffix;
     }
 
-    private Pair<List<String>, List<TermValue>> createQueryFieldsPair() {
-        List<String> queryFieldNames = new LinkedList<>();
-        List<TermValue> queryFieldValues = new LinkedList<>();
-        return new ImmutablePair<>(queryFieldNames, queryFieldValues);
-    }
+    private static final class QueryTemplate {
 
-    private void setPublicationIdField(Pair<List<String>, List<TermValue>> queryFieldsPair,
-                                       SearchParameters searchParameters) {
-        Integer publicationId = searchParameters.getPublicationId();
-        if (publicationId != null) {
-            addQueryField(queryFieldsPair, "publicationId", publicationId);
-        }
-    }
-    private void setNamespaceField(Pair<List<String>, List<TermValue>> queryFieldsPair,
-                                   String namespace) {
-        if (namespace != null && !namespace.isEmpty()) {
-            addQueryField(queryFieldsPair, "namespace", namespace);
-        }
-    }
+        private final String language;
 
-    private void addQueryField(Pair<List<String>, List<TermValue>> queryFieldsPair,
-                               String fieldName,
-                               Object fieldValue) {
-        queryFieldsPair.getLeft().add(fieldName);
-        queryFieldsPair.getRight().add(new DefaultTermValue(fieldValue));
-    }
+        private final boolean cjk;
 
-    private void setSearchQuery(Pair<List<String>, List<TermValue>> queryFieldsPair,
-                                SearchParameters searchParameters,
-                                String separator,
-                                String language) {
-        String contentLanguage = Locale
-                .forLanguageTag(language)
-                .getDisplayLanguage()
-                .toLowerCase();
-        String searchQuery = searchParameters.getSearchQuery();
-        String contentLang = getPublicationOnlineStatusField("content", separator, contentLanguage);
+        private final String namespace;
+
+        private final String remoteStatusField;
+
+        private final String contentField;
+
+        private final String cjkContentField;
 
-        Matcher matcher = REGEXP_DOUBLE_QUOTES.matcher(searchQuery);
-        if (matcher.find()) {
-            addQueryField(queryFieldsPair, contentLang, matcher.group(1));
-            return;
+        private QueryTemplate(String language, boolean cjk, String namespace, String remoteStatusField,
+                              String contentField, String cjkContentField) {
+            this.language = language;
+            this.cjk = cjk;
+            this.namespace = namespace;
+            this.remoteStatusField = remoteStatusField;
+            this.contentField = contentField;
+            this.cjkContentField = cjkContentField;
         }
-        addQueryField(queryFieldsPair, contentLang, searchQuery);
     }
-}
\ No newline at end of file
+}
@@ -10,20 +10,31 @@ import com.sdl.dxa.modules.docs.search.exception.SearchException;
 import com.sdl.dxa.modules.docs.search.model.SearchParameters;
 import com.sdl.dxa.modules.docs.search.model.SearchResult;
 import com.sdl.dxa.modules.docs.search.model.SearchResultSet;
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.util.ReflectionUtils;
 
+import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Locale;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Test for SearchService class.
@@ -53,6 +64,11 @@ public class SearchServiceTest {
     @InjectMocks
     private SearchService service = new SearchService();
 
+    @After
+    public void tearDown() {
+        service.destroy();
+    }
+
     @Test
     public void testConvertQueryResult() {
         SearchQueryResult queryResult = new SearchQueryResult();
@@ -139,4 +155,68 @@ public class SearchServiceTest {
         assertEquals(COUNT, result.getCount());
         assertEquals(0, result.getQueryResults().size());
     }
+
+    @Test
+    public void testSearchResultIsCachedForSameNormalizedQuery() throws SearchException, QueryException {
+        service.init();
+        SearchQueryResultSet resultSet = new SearchQueryResultSet();
+        resultSet.setHits(HITS);
+        resultSet.setQueryResults(Collections.EMPTY_LIST);
+        Criteria criteria = SearchQuery.newQuery().id(ID).compile();
+        doReturn(searcher).when(service).createSearcher(any(SearchParameters.class));
+        doReturn(criteria).when(configurer).buildCriteria(any(SearchParameters.class));
+        doReturn(resultSet).when(searcher).search(criteria);
+
+        SearchResultSet first = service.search("{\"PublicationId\" : 123123, \"SearchQuery\" : \"Connector for headsets\"}");
+        SearchResultSet second = service.search("{\"PublicationId\" : 123123, \"SearchQuery\" : \" connector  FOR headsets\"}");
+        SearchResultSet otherPublication = service.search("{\"PublicationId\" : 1, \"SearchQuery\" : \"Connector for headsets\"}");
+
+        assertSame(first, second);
+        assertNotSame(first, otherPublication);
+        verify(searcher, times(2)).search(criteria);
+    }
+
+    @Test
+    public void testSearchIsRetriedAfterFailure() throws SearchException, QueryException {
+        service.init();
+        SearchQueryResultSet resultSet = new SearchQueryResultSet();
+        resultSet.setHits(HITS);
+        resultSet.setQueryResults(Collections.EMPTY_LIST);
+        Criteria criteria = SearchQuery.newQuery().id(ID).compile();
+        doReturn(searcher).when(service).createSearcher(any(SearchParameters.class));
+        doReturn(criteria).when(configurer).buildCriteria(any(SearchParameters.class));
+        doThrow(new IllegalStateException("Search service is not available")).doReturn(resultSet).when(searcher).search(criteria);
+
+        SearchResultSet result = service.search("{\"SearchQuery\" : \"Connector for headsets\"}");
+
+        assertEquals(HITS, result.getHits());
+        verify(searcher, times(2)).search(criteria);
+    }
+
+    @Test
+    public void testSlowFirstSearchAttemptIsBoundedByDeadline() throws SearchException, QueryException {
+        setField("retryDeadlineMillis", 200L);
+        service.init();
+        Criteria criteria = SearchQuery.newQuery().id(ID).compile();
+        doReturn(searcher).when(service).createSearcher(any(SearchParameters.class));
+        doReturn(criteria).when(configurer).buildCriteria(any(SearchParameters.class));
+        doAnswer(invocation -> {
+            Thread.sleep(5000);
+            return null;
+        }).when(searcher).search(criteria);
+
+        long start = System.currentTimeMillis();
+        try {
+            service.search("{\"SearchQuery\" : \"Connector for headsets\"}");
+            fail("Search is expected to fail after the deadline");
+        } catch (SearchException e) {
+            assertTrue(System.currentTimeMillis() - start < 2000);
+        }
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(SearchService.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, service, value);
+    }
 }
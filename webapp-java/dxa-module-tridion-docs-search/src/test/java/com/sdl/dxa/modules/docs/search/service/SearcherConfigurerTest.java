@@ -126,6 +126,26 @@ public class SearcherConfigurerTest {
         assertEquals(expected, criteria.getRawQuery());
     }
 
+    @Test
+    public void testBuildCriteriaReusesLanguageTemplateForOtherQuery() throws SearchException {
+        final String expected = "{\"type\":\"query\",\"op\":\"AND\",\"nodes\":[{\"type\":\"group\",\"keys\":" +
+                "[\"dynamic+FISHDITADLVRREMOTESTATUS.lng.element\",\"content+english\"]," +
+                "\"values\":[\"VDITADLVRREMOTESTATUSONLINE\",\"other query\"],\"termTypes\":" +
+                "[\"EXACT\",\"EXACT\"],\"boostValues\":[\"0.0\",\"0.0\"],\"types\":" +
+                "[\"STRING\",\"STRING\"]}]}";
+        SearchParameters first = new SearchParameters();
+        first.setPublicationId(PUBLICATION_ID);
+        first.setSearchQuery("some query");
+        first.setLanguage("en");
+        configurer.buildCriteria(first);
+
+        SearchParameters parameters = new SearchParameters();
+        parameters.setSearchQuery("other query");
+        parameters.setLanguage("en");
+        Criteria criteria = configurer.buildCriteria(parameters);
+        assertEquals(expected, criteria.getRawQuery());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testBuildCriteriaIncorrectParameters() throws SearchException {
         SearchParameters parameters = new SearchParameters();
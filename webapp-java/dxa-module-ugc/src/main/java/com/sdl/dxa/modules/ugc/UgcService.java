@@ -1,6 +1,9 @@
 package com.sdl.dxa.modules.ugc;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.sdl.delivery.ugc.client.comment.UgcCommentApi;
 import com.sdl.delivery.ugc.client.comment.impl.SimpleCommentsFilter;
 import com.sdl.dxa.modules.ugc.data.Comment;
@@ -14,21 +17,27 @@ import com.sdl.webapp.common.util.TcmUtils;
 import com.tridion.ambientdata.AmbientDataContext;
 import com.tridion.ambientdata.claimstore.ClaimStore;
 import com.tridion.ambientdata.web.WebContext;
+import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>Service providing methods to  create and retrieve comments</p>
@@ -37,19 +46,37 @@ import java.util.TimeZone;
 @Slf4j
 public class UgcService {
 
-    private static final int maximumThreadsDepth = -1;
+    @Value("${dxa.modules.ugc.comments.maxdepth:-1}")
+    private int maximumThreadsDepth = -1;
+
+    @Value("${dxa.modules.ugc.comments.cache.seconds:60}")
+    private long commentsCacheSeconds = 60;
+
+    @Value("${dxa.modules.ugc.comments.cache.size:1000}")
+    private long commentsCacheSize = 1000;
 
     @Autowired
     private UgcCommentApi ugcCommentApi;
 
+    private Cache<CommentsQuery, List<Comment>> commentsCache;
+
     //Todo: use UgcVoteCommentApi implementation when it becomes available
 
     @Autowired
     public UgcService() {
     }
 
+    @PostConstruct
+    public void init() {
+        commentsCache = CacheBuilder.newBuilder()
+                .maximumSize(commentsCacheSize)
+                .expireAfterWrite(commentsCacheSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
     /**
      * retrieves a list of {@link Comment}  items for a given page
+     * up to the configured thread depth ({@code dxa.modules.ugc.comments.maxdepth}, unlimited by default)
      *
      * @param publicationId Publication Id
      * @param pageId        Page Id
@@ -60,22 +87,71 @@ public class UgcService {
      * @return List of {@link Comment}
      */
     public List<Comment> getComments(int publicationId, int pageId, boolean descending, Integer[] statuses, int top, int skip) {
+        return getComments(publicationId, pageId, descending, statuses, top, skip, maximumThreadsDepth);
+    }
+
+    /**
+     * retrieves a list of {@link Comment}  items for a given page.
+     * <p>Results are cached per publication and page until the cache entry expires
+     * or a comment is posted on the page.</p>
+     *
+     * @param publicationId Publication Id
+     * @param pageId        Page Id
+     * @param descending    Order
+     * @param statuses      Limit to specific statuses
+     * @param top           maximum number of top-level comments to show, {@code 0} for all
+     * @param skip          number of top-level comments to skip
+     * @param depth         maximum depth of replies to load, {@code -1} for unlimited
+     * @return List of {@link Comment}
+     */
+    public List<Comment> getComments(int publicationId, int pageId, boolean descending, Integer[] statuses,
+                                     int top, int skip, int depth) {
+        String pageTcmUri = TcmUtils.buildPageTcmUri(publicationId, pageId);
+        if (commentsCache == null) {
+            return fetchComments(pageTcmUri, descending, statuses, top, skip, depth);
+        }
+
+        CommentsQuery query = new CommentsQuery(pageTcmUri, descending, new ArrayList<>(Arrays.asList(statuses)), top, skip, depth);
+        try {
+            return commentsCache.get(query, () -> fetchComments(pageTcmUri, descending, statuses, top, skip, depth));
+        } catch (ExecutionException | UncheckedExecutionException ex) {
+            if (ex.getCause() instanceof CannotFetchCommentsException) {
+                throw (CannotFetchCommentsException) ex.getCause();
+            }
+            throw new CannotFetchCommentsException("Cannot fetch comments for " + pageTcmUri, ex.getCause());
+        }
+    }
+
+    private List<Comment> fetchComments(String pageTcmUri, boolean descending, Integer[] statuses, int top, int skip, int depth) {
         final List<Status> statusStatuses = new ArrayList<>();
         Arrays.stream(statuses).forEach(status -> statusStatuses.add(Status.getStatusForId(status)));
         final SimpleCommentsFilter filter = new SimpleCommentsFilter()
                 .withTop(top)
                 .withSkip(skip)
-                .withDepth(maximumThreadsDepth)
+                .withDepth(depth)
                 .withStatuses(statusStatuses);
 
-        String pageTcmUri = TcmUtils.buildPageTcmUri(publicationId, pageId);
         try (Performance perf = new Performance(1_000L, "getComments stream")) {
-            return convert(ugcCommentApi.retrieveThreadedComments(pageTcmUri, filter, descending, true));
+            return Collections.unmodifiableList(convert(ugcCommentApi.retrieveThreadedComments(pageTcmUri, filter, descending, true)));
         } catch (Exception ex) {
             throw new CannotFetchCommentsException("Cannot fetch comments for " + pageTcmUri, ex);
         }
     }
 
+    /**
+     * Drops all cached comments of a given page.
+     *
+     * @param publicationId Publication Id
+     * @param pageId        Page Id
+     */
+    public void evictComments(int publicationId, int pageId) {
+        if (commentsCache == null) {
+            return;
+        }
+        String pageTcmUri = TcmUtils.buildPageTcmUri(publicationId, pageId);
+        commentsCache.asMap().keySet().removeIf(query -> query.pageTcmUri.equals(pageTcmUri));
+    }
+
     /**
      * Post {@link Comment} for a given page
      *
@@ -107,11 +183,14 @@ public class UgcService {
             log.error("Error while adding Claims for user " + username, e);
         }
         String pageTcmUri = TcmUtils.buildPageTcmUri(publicationId, pageId);
+        final Comment comment;
         try {
-            return convert(ugcCommentApi.postComment(pageTcmUri, username, email, content, parentId, metadata));
+            comment = convert(ugcCommentApi.postComment(pageTcmUri, username, email, content, parentId, metadata));
         } catch (Exception ex) {
             throw new CannotProcessCommentException("Cannot post comment for " + pageTcmUri, ex);
         }
+        evictComments(publicationId, pageId);
+        return comment;
     }
 
     private List<Comment> convert(List<com.sdl.delivery.ugc.client.odata.edm.Comment> comments) {
@@ -179,4 +258,28 @@ public class UgcService {
         return u;
     }
 
+    @EqualsAndHashCode
+    private static final class CommentsQuery {
+
+        private final String pageTcmUri;
+
+        private final boolean descending;
+
+        private final List<Integer> statuses;
+
+        private final int top;
+
+        private final int skip;
+
+        private final int depth;
+
+        private CommentsQuery(String pageTcmUri, boolean descending, List<Integer> statuses, int top, int skip, int depth) {
+            this.pageTcmUri = pageTcmUri;
+            this.descending = descending;
+            this.statuses = statuses;
+            this.top = top;
+            this.skip = skip;
+            this.depth = depth;
+        }
+    }
 }
@@ -9,7 +9,9 @@ import com.sdl.webapp.common.api.content.ContentProviderException;
 import com.sdl.webapp.common.api.model.EntityModel;
 import com.sdl.webapp.common.api.model.ViewModel;
 import com.sdl.webapp.common.controller.EntityController;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -28,6 +30,13 @@ public class UgcController extends EntityController {
     @Autowired
     private UgcService ugcService;
 
+    /**
+     * Number of top-level comments rendered per page, {@code 0} renders all of them.
+     * The offset is taken from the {@code commentsSkip} request parameter.
+     */
+    @Value("${dxa.modules.ugc.comments.pagesize:0}")
+    private int commentsPageSize;
+
     private static List<UgcComment> createEntities(List<Comment> comments) {
 
         final List<UgcComment> ugcComments = new ArrayList<>();
@@ -49,8 +58,10 @@ public class UgcController extends EntityController {
         if (model instanceof UgcComments) {
             final ViewModel enrichedModel = super.enrichModel(model, request);
             final UgcComments ugcComments = (UgcComments) (enrichedModel instanceof EntityModel ? enrichedModel : model);
+            final int skip = commentsPageSize > 0 && request != null ?
+                    Math.max(0, NumberUtils.toInt(request.getParameter("commentsSkip"), 0)) : 0;
             final List<Comment> comments = ugcService.getComments(ugcComments.getTarget().getPublicationId(),
-                    ugcComments.getTarget().getItemId(), false, new Integer[0], 0, 0);
+                    ugcComments.getTarget().getItemId(), false, new Integer[0], commentsPageSize, skip);
             ugcComments.setComments(createEntities(comments));
             return ugcComments;
         }
@@ -1,10 +1,12 @@
 package com.sdl.dxa.modules.ugc;
 
 import com.sdl.delivery.ugc.client.comment.UgcCommentApi;
+import com.sdl.delivery.ugc.client.comment.impl.SimpleCommentsFilter;
 import com.sdl.dxa.modules.ugc.data.Comment;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
@@ -13,7 +15,11 @@ import java.util.HashMap;
 import java.util.List;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -29,6 +35,9 @@ public class UgcServiceTest {
     @Mock
     private UgcService ugcService;
 
+    @InjectMocks
+    private UgcService cachingUgcService = new UgcService();
+
     @Test
     public void shouldProcessGetComments() {
         //given
@@ -55,4 +64,38 @@ public class UgcServiceTest {
         //then
         Assert.assertEquals(result,comment);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldCacheCommentsUntilPageIsEvicted() throws Exception {
+        //given
+        cachingUgcService.init();
+        when(ugcCommentApi.retrieveThreadedComments(eq("tcm:1-2-64"), any(SimpleCommentsFilter.class), anyBoolean(), anyBoolean()))
+                .thenReturn(new ArrayList<>());
+
+        //when
+        cachingUgcService.getComments(1, 2, false, new Integer[]{}, 0, 0);
+        cachingUgcService.getComments(1, 2, false, new Integer[]{}, 0, 0);
+        cachingUgcService.evictComments(1, 2);
+        List<Comment> result = cachingUgcService.getComments(1, 2, false, new Integer[]{}, 0, 0);
+
+        //then
+        Assert.assertTrue(result.isEmpty());
+        verify(ugcCommentApi, times(2)).retrieveThreadedComments(eq("tcm:1-2-64"), any(SimpleCommentsFilter.class), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void shouldCacheEveryPageOfCommentsSeparately() throws Exception {
+        //given
+        cachingUgcService.init();
+        when(ugcCommentApi.retrieveThreadedComments(eq("tcm:1-2-64"), any(SimpleCommentsFilter.class), anyBoolean(), anyBoolean()))
+                .thenReturn(new ArrayList<>());
+
+        //when
+        cachingUgcService.getComments(1, 2, false, new Integer[]{}, 10, 0, 1);
+        cachingUgcService.getComments(1, 2, false, new Integer[]{}, 10, 10, 1);
+        cachingUgcService.getComments(1, 2, false, new Integer[]{}, 10, 10, 1);
+
+        //then
+        verify(ugcCommentApi, times(2)).retrieveThreadedComments(eq("tcm:1-2-64"), any(SimpleCommentsFilter.class), anyBoolean(), anyBoolean());
+    }
+}